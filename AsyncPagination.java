@@ -0,0 +1,105 @@
+package com.qianmi.app.util;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 异步分页，COUNT 查询和当前页数据查询同时进行，不再需要先拿到总数
+ * <pre>
+ * AsyncPagination async = new AsyncPagination(config, executor, 200, TimeUnit.MILLISECONDS);
+ * async.fetch(currentPage, () -> dao.count(query), () -> dao.list(query, offset, limit))
+ *      .thenAccept(result -> ...);
+ * </pre>
+ * executor 可以是线程池，也可以是 Executors.newVirtualThreadPerTaskExecutor()
+ *
+ * 结果在两个查询都结束（或 COUNT 超时）后生成，面板仍由 Pagination.render 输出，与 drawLinks 相同；
+ * COUNT 超时或失败时，按当前页取到的条数输出不带末页的分页（同 Pagination.renderLookahead），
+ * 此时 PageResult.getTotal_entries() 为 PageResult.UNKNOWN，除非当前页未取满、总数可以精确得出
+ *
+ * 线程安全，可作为单例共享
+ *
+ * @author mysoko
+ */
+public final class AsyncPagination {
+
+    private final PaginationConfig config;
+    private final Executor executor;
+    private final long count_timeout_nanos; // COUNT 查询的超时时间，0为一直等待
+
+    public AsyncPagination(PaginationConfig config, Executor executor) {
+        this(config, executor, 0, TimeUnit.NANOSECONDS);
+    }
+
+    public AsyncPagination(PaginationConfig config, Executor executor, long countTimeout, TimeUnit unit) {
+        if (config == null || executor == null || unit == null) {
+            throw new NullPointerException();
+        }
+        if (countTimeout < 0) {
+            throw new IllegalArgumentException("countTimeout must not be negative: " + countTimeout);
+        }
+        this.config = config;
+        this.executor = executor;
+        this.count_timeout_nanos = unit.toNanos(countTimeout);
+    }
+
+    public PaginationConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 在 executor 中同时执行 COUNT 查询和当前页数据查询
+     */
+    public <T> CompletableFuture<PageResult<T>> fetch(long currentPage, Supplier<Long> countQuery, Supplier<List<T>> pageQuery) {
+        CompletableFuture<Long> count = CompletableFuture.supplyAsync(countQuery, executor);
+        CompletableFuture<List<T>> page = CompletableFuture.supplyAsync(pageQuery, executor);
+        return fetch(currentPage, count, page);
+    }
+
+    /**
+     * 调用方已经发起的两个查询；数据查询失败时结果也失败，COUNT 失败时按总数未知处理
+     * COUNT 超时后不会被取消，调用方可以继续使用它的结果（如放入 CountCache）
+     */
+    public <T> CompletableFuture<PageResult<T>> fetch(final long currentPage, CompletableFuture<Long> count, CompletableFuture<List<T>> page) {
+        CompletableFuture<Long> total = count.handle((t, e) -> e == null && t != null ? t : PageResult.UNKNOWN);
+        if (count_timeout_nanos > 0 && !count.isDone()) {
+            CompletableFuture<Long> timeout = new CompletableFuture<>();
+            ScheduledFuture<?> task = Delayer.TIMER.schedule(() -> timeout.complete(PageResult.UNKNOWN),
+                    count_timeout_nanos, TimeUnit.NANOSECONDS);
+            count.whenComplete((t, e) -> task.cancel(false));
+            total = total.applyToEither(timeout, Function.identity());
+        }
+        return page.thenCombine(total, (items, totalEntries) -> result(currentPage, items, totalEntries));
+    }
+
+    private <T> PageResult<T> result(long currentPage, List<T> items, long totalEntries) {
+        if (totalEntries != PageResult.UNKNOWN) {
+            return new PageResult<>(items, currentPage, totalEntries, Pagination.render(config, currentPage, totalEntries));
+        }
+        int fetchedRows = items == null ? 0 : items.size();
+        long knownEntries = Pagination.knownEntries(config, currentPage, fetchedRows);
+        if (fetchedRows < config.getItems_per_page()) {
+            // 当前页未取满，就是最后一页，总数可以精确得出
+            return new PageResult<>(items, currentPage, knownEntries, Pagination.render(config, currentPage, knownEntries));
+        }
+        // 取满一页时按后面至少还有一条处理，面板带有下一页的链接
+        return new PageResult<>(items, currentPage, PageResult.UNKNOWN,
+                Pagination.renderOpenEnded(config, currentPage, Pagination.addSaturated(knownEntries, 1)));
+    }
+
+    // 超时用的定时器，守护线程，首次使用时创建
+    private static final class Delayer {
+        static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pagination-count-timeout");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.qianmi.app.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 字节输出，预编码的片段直接写入，只有页码和游标需要按请求编码
+ *
+ * @author mysoko
+ */
+abstract class ByteSink {
+
+    private final byte[] digits = new byte[20]; // long 最多19位加符号
+
+    abstract void write(byte b) throws IOException;
+
+    abstract void write(byte[] bytes) throws IOException;
+
+    abstract void write(byte[] bytes, int off, int len) throws IOException;
+
+    void writeNumber(long n) throws IOException {
+        if (n == Long.MIN_VALUE) {
+            writeUtf8("-9223372036854775808");
+            return;
+        }
+        boolean negative = n < 0;
+        if (negative) {
+            n = -n;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (byte) ('0' + n % 10);
+            n /= 10;
+        } while (n != 0);
+        if (negative) {
+            digits[--pos] = '-';
+        }
+        write(digits, pos, digits.length - pos);
+    }
+
+    // 编码未预编码的字符，如游标
+    void writeUtf8(CharSequence csq) throws IOException {
+        for (int i = 0, len = csq.length(); i < len; i++) {
+            char c = csq.charAt(i);
+            if (c < 0x80) {
+                write((byte) c);
+            } else if (c < 0x800) {
+                write((byte) (0xC0 | (c >> 6)));
+                write((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(csq.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, csq.charAt(++i));
+                write((byte) (0xF0 | (cp >> 18)));
+                write((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                write((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                write((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                write((byte) '?'); // 不成对的代理字符，与 String.getBytes 一致
+            } else {
+                write((byte) (0xE0 | (c >> 12)));
+                write((byte) (0x80 | ((c >> 6) & 0x3F)));
+                write((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    static ByteSink of(final ByteBuffer buffer) {
+        return new ByteSink() {
+            @Override
+            void write(byte b) {
+                buffer.put(b);
+            }
+
+            @Override
+            void write(byte[] bytes) {
+                buffer.put(bytes);
+            }
+
+            @Override
+            void write(byte[] bytes, int off, int len) {
+                buffer.put(bytes, off, len);
+            }
+        };
+    }
+
+    static ByteSink of(final OutputStream stream) {
+        return new ByteSink() {
+            @Override
+            void write(byte b) throws IOException {
+                stream.write(b);
+            }
+
+            @Override
+            void write(byte[] bytes) throws IOException {
+                stream.write(bytes);
+            }
+
+            @Override
+            void write(byte[] bytes, int off, int len) throws IOException {
+                stream.write(bytes, off, len);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.qianmi.app.util;
+
+/**
+ * 编译后的文本模板：字面量片段和占位符交替排列，供 LinkTemplate、PanelFormat 使用
+ * 输出时依次写出 literals[i]、第 i 个占位符的值，最后写出 literals[slots.length]
+ *
+ * @author mysoko
+ */
+final class CompiledTemplate {
+
+    final String[] literals; // 字面量片段，比 slots 多一个
+    final int[] slots;       // 占位符在 placeholders 中的下标
+
+    private CompiledTemplate(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+    }
+
+    /**
+     * 编译模板，从左到右匹配占位符（与 String.replace 相同，不重叠）
+     */
+    static CompiledTemplate compile(String source, String[] placeholders) {
+        if (source == null) {
+            throw new NullPointerException();
+        }
+        int count = 0;
+        for (int i = 0; (i = nextPlaceholder(source, i, placeholders)) >= 0; i += placeholders[slotAt(source, i, placeholders)].length()) {
+            count++;
+        }
+
+        String[] literals = new String[count + 1];
+        int[] slots = new int[count];
+        int from = 0;
+        for (int n = 0; n < count; n++) {
+            int at = nextPlaceholder(source, from, placeholders);
+            slots[n] = slotAt(source, at, placeholders);
+            literals[n] = source.substring(from, at);
+            from = at + placeholders[slots[n]].length();
+        }
+        literals[count] = source.substring(from);
+        return new CompiledTemplate(literals, slots);
+    }
+
+    /**
+     * 模板是否为空串
+     */
+    boolean isEmpty() {
+        return slots.length == 0 && literals[0].isEmpty();
+    }
+
+    // 从 from 开始第一个占位符的位置，没有则返回 -1
+    private static int nextPlaceholder(String source, int from, String[] placeholders) {
+        int first = -1;
+        for (String placeholder : placeholders) {
+            int i = source.indexOf(placeholder, from);
+            if (i >= 0 && (first < 0 || i < first)) {
+                first = i;
+            }
+        }
+        return first;
+    }
+
+    private static int slotAt(String source, int index, String[] placeholders) {
+        for (int slot = 0; slot < placeholders.length; slot++) {
+            if (source.startsWith(placeholders[slot], index)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+}
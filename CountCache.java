@@ -0,0 +1,296 @@
+package com.qianmi.app.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 总数缓存，缓存 COUNT(*) 的结果，作为 setMaxentries / Pagination.render 的 totalEntries
+ * key 由调用方定义（如查询条件），按 TTL 过期、按 LRU 淘汰，可并发使用
+ *
+ * 同一 key 同时未命中时只执行一次 COUNT，其他调用等待同一个结果；
+ * 写入方可以通过 increment / decrement / adjust 直接修改缓存的总数，不必重新 COUNT。
+ * 加载过程中发生修改时，加载结果可能已经过时，只返回给等待的调用方而不放入缓存
+ *
+ * @author mysoko
+ */
+public final class CountCache<K> {
+
+    private final int maxEntries;     // 最多缓存条数
+    private final long ttl_nanos;     // 加载后多久过期，修改总数不会延长
+    private final LongSupplier clock; // 纳秒时钟，默认 System.nanoTime
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<K, Entry> counts = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<K, Flight> loading = new HashMap<>(); // 正在加载的 key
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CountCache(int maxEntries, long ttl, TimeUnit unit) {
+        this(maxEntries, ttl, unit, System::nanoTime);
+    }
+
+    /**
+     * 指定时钟，用于测试
+     */
+    public CountCache(int maxEntries, long ttl, TimeUnit unit, LongSupplier clock) {
+        if (maxEntries <= 0 || ttl <= 0) {
+            throw new IllegalArgumentException("maxEntries and ttl must be positive");
+        }
+        if (unit == null || clock == null) {
+            throw new NullPointerException();
+        }
+        this.maxEntries = maxEntries;
+        this.ttl_nanos = unit.toNanos(ttl);
+        this.clock = clock;
+    }
+
+    /**
+     * 缓存的总数，未命中时在当前线程执行 loader；同一 key 正在加载时等待其结果
+     */
+    public long get(K key, LongSupplier loader) {
+        Flight flight;
+        boolean owner = false;
+        synchronized (lock) {
+            Entry entry = lookup(key);
+            if (entry != null) {
+                return entry.count;
+            }
+            flight = loading.get(key);
+            if (flight == null) {
+                flight = new Flight();
+                loading.put(key, flight);
+                owner = true;
+            }
+        }
+        if (!owner) {
+            return join(flight.future);
+        }
+        long count;
+        try {
+            count = loader.getAsLong();
+        } catch (RuntimeException | Error e) {
+            fail(key, flight, e);
+            throw e;
+        }
+        return complete(key, flight, count);
+    }
+
+    /**
+     * 同 get，未命中时在 executor 中执行 loader，可直接传给 AsyncPagination.fetch
+     * executor 拒绝任务时返回的 future 以该异常结束，下次调用重新加载
+     */
+    public CompletableFuture<Long> getAsync(K key, Supplier<Long> loader, Executor executor) {
+        Flight flight;
+        synchronized (lock) {
+            Entry entry = lookup(key);
+            if (entry != null) {
+                return CompletableFuture.completedFuture(entry.count);
+            }
+            flight = loading.get(key);
+            if (flight != null) {
+                return flight.future.thenApply(Function.identity());
+            }
+            flight = new Flight();
+            loading.put(key, flight);
+        }
+        final Flight started = flight;
+        CompletableFuture<Long> load;
+        try {
+            load = CompletableFuture.supplyAsync(loader, executor);
+        } catch (RuntimeException e) {
+            // 如线程池已满或已关闭时的 RejectedExecutionException，不能留下永远不会结束的加载
+            fail(key, started, e);
+            return started.future.thenApply(Function.identity());
+        }
+        load.whenComplete((count, e) -> {
+            if (e != null) {
+                fail(key, started, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            } else if (count == null) {
+                fail(key, started, new NullPointerException("loader returned null for " + key));
+            } else {
+                complete(key, started, count);
+            }
+        });
+        return started.future.thenApply(Function.identity());
+    }
+
+    /**
+     * 只读取缓存，不存在或已过期时返回 null
+     */
+    public Long getIfPresent(K key) {
+        synchronized (lock) {
+            Entry entry = lookup(key);
+            return entry == null ? null : entry.count;
+        }
+    }
+
+    public void increment(K key) {
+        adjust(key, 1);
+    }
+
+    public void decrement(K key) {
+        adjust(key, -1);
+    }
+
+    /**
+     * 写入方新增或删除记录后修改缓存的总数，不存在时忽略
+     * 结果小于0说明缓存已与数据不一致，直接删除，下次重新 COUNT
+     */
+    public void adjust(K key, long delta) {
+        synchronized (lock) {
+            Entry entry = counts.get(key);
+            if (entry != null) {
+                long count = Pagination.addSaturated(entry.count, delta);
+                if (count < 0) {
+                    counts.remove(key);
+                } else {
+                    entry.count = count;
+                }
+            }
+            markStale(key);
+        }
+    }
+
+    /**
+     * 删除缓存的总数，下次重新 COUNT
+     */
+    public void invalidate(K key) {
+        synchronized (lock) {
+            counts.remove(key);
+            markStale(key);
+        }
+    }
+
+    public void clear() {
+        synchronized (lock) {
+            counts.clear();
+            for (Flight flight : loading.values()) {
+                flight.stale = true;
+            }
+        }
+    }
+
+    // 未过期的缓存，过期的顺便删除；调用方持有 lock
+    private Entry lookup(K key) {
+        Entry entry = counts.get(key);
+        if (entry != null && clock.getAsLong() - entry.expires_at < 0) {
+            hits.incrementAndGet();
+            return entry;
+        }
+        if (entry != null) {
+            counts.remove(key);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    private void markStale(K key) {
+        Flight flight = loading.get(key);
+        if (flight != null) {
+            flight.stale = true;
+        }
+    }
+
+    private long complete(K key, Flight flight, long count) {
+        synchronized (lock) {
+            loading.remove(key, flight);
+            if (!flight.stale) {
+                counts.put(key, new Entry(count, clock.getAsLong() + ttl_nanos));
+                Iterator<Entry> eldest = counts.values().iterator();
+                while (counts.size() > maxEntries) {
+                    eldest.next();
+                    eldest.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+        flight.future.complete(count);
+        return count;
+    }
+
+    private void fail(K key, Flight flight, Throwable e) {
+        synchronized (lock) {
+            loading.remove(key, flight);
+        }
+        flight.future.completeExceptionally(e);
+    }
+
+    private static long join(CompletableFuture<Long> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return counts.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return "CountCache{size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions() + "}";
+    }
+
+    private static final class Entry {
+
+        private long count;
+        private final long expires_at;
+
+        Entry(long count, long expires_at) {
+            this.count = count;
+            this.expires_at = expires_at;
+        }
+    }
+
+    // 一次正在进行的加载，等待方共用 future
+    private static final class Flight {
+
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+        private boolean stale; // 加载期间总数被修改或删除，结果不放入缓存，受 lock 保护
+    }
+
+    public static void main(String[] args) {
+        CountCache<String> cache = new CountCache<>(100, 30, TimeUnit.SECONDS);
+        long total = cache.get("status=1", () -> 1000);
+        cache.increment("status=1");
+        PaginationConfig config = PaginationConfig.builder().setNum_edge_entries(2).build();
+        System.out.println(Pagination.render(config, 0, cache.get("status=1", () -> total)));
+        System.out.println(cache);
+    }
+
+}
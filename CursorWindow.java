@@ -0,0 +1,88 @@
+package com.qianmi.app.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 游标（keyset）分页的当前位置
+ * 链接中不再携带偏移量，而是携带调用方提供的游标（如上一页最后一条记录的排序键），
+ * 后端按 WHERE key > cursor LIMIT n 查询，深页与首页代价相同
+ *
+ * before[0] 是上一页的游标，before[1] 是上上页，依此类推；after 同理
+ *
+ * @author mysoko
+ */
+public final class CursorWindow {
+
+    private static final String[] NONE = new String[0];
+
+    private final long current_page;  // 当前页数，只用于显示页码
+    private final String[] before;    // 当前页之前各页的游标，近的在前
+    private final String[] after;     // 当前页之后各页的游标，近的在前
+    private final boolean more_before; // before 之前是否还有页
+    private final boolean more_after;  // after 之后是否还有页
+
+    public CursorWindow(long current_page, String[] before, String[] after, boolean more_before, boolean more_after) {
+        this.current_page = current_page;
+        this.before = before == null ? NONE : before.clone();
+        this.after = after == null ? NONE : after.clone();
+        this.more_before = more_before;
+        this.more_after = more_after;
+    }
+
+    /**
+     * 只知道上一页和下一页的游标，为空表示没有
+     */
+    public static CursorWindow of(long current_page, String prev, String next) {
+        return new CursorWindow(current_page,
+                prev == null ? NONE : new String[]{prev},
+                next == null ? NONE : new String[]{next},
+                false, false);
+    }
+
+    public long getCurrent_page() {
+        return current_page;
+    }
+
+    public int beforeCount() {
+        return before.length;
+    }
+
+    public int afterCount() {
+        return after.length;
+    }
+
+    /**
+     * 当前页之前第 n 页（从1开始）的游标
+     */
+    public String before(int n) {
+        return before[n - 1];
+    }
+
+    /**
+     * 当前页之后第 n 页（从1开始）的游标
+     */
+    public String after(int n) {
+        return after[n - 1];
+    }
+
+    public boolean hasMoreBefore() {
+        return more_before;
+    }
+
+    public boolean hasMoreAfter() {
+        return more_after;
+    }
+
+    /**
+     * 把排序键编码为可以直接放进 URL 的游标（UTF-8 后 base64url，无填充）
+     */
+    public static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decode(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+
+}
@@ -1,6 +1,6 @@
 package com.qianmi.app.util;
 
-import java.util.*;
+import java.util.Arrays;
 
 /**
  * HTMLTag
@@ -11,10 +11,16 @@ public class HTMLTag {
 
     // 内容间隔
     private static final String ATTR_SPACE = " ";
+    private static final char ATTR_SPACE_CHAR = ' ';
+
+    // 大多数标签只有一两个属性
+    private static final int INITIAL_CAPACITY = 2;
 
     private Tag tag;                              // 标签
-    private Map<Attribute, String> attributes;    // 属性集合
-    private String content;                       // 标签内容
+    private short[] attr_ordinals;                // 属性集合，按添加顺序存放 Attribute.ordinal
+    private String[] attr_values;                 // 与 attr_ordinals 一一对应的属性值
+    private int attr_count;                       // 属性个数
+    private String content;                       // 标签内容，输出时转义
 
     /**
      * 构造一个必须有名称和内容的标签
@@ -26,7 +32,6 @@ public class HTMLTag {
             throw new NullPointerException();
         }
         this.tag = tag;
-        this.attributes = new LinkedHashMap<>();
         this.content = content;
     }
 
@@ -37,7 +42,6 @@ public class HTMLTag {
      */
     public HTMLTag(Tag tag) {
         this.tag = tag;
-        this.attributes = new LinkedHashMap<>();
     }
 
     // 添加属性,如果属性内已存在改值则不新增
@@ -46,67 +50,138 @@ public class HTMLTag {
             return this;
         }
 
-        String attrValue = this.attributes.get(attr);
-        if (attrValue == null) {
-            attributes.put(attr, value);
+        int index = indexOf(attr);
+        if (index < 0) {
+            append(attr, value);
             return this;
         }
 
-        if (Arrays.asList(attrValue.split(ATTR_SPACE)).contains(value)) {
+        String attrValue = attr_values[index];
+        if (containsToken(attrValue, value)) {
             return this;
         }
 
-        attributes.put(attr, new StringBuffer(attrValue).append(ATTR_SPACE).append(value).toString());
+        attr_values[index] = new StringBuilder(attrValue.length() + 1 + value.length())
+                .append(attrValue).append(ATTR_SPACE_CHAR).append(value).toString();
         return this;
     }
 
     // 删除某个具体属性
     public HTMLTag removeAttribute(Attribute attr) {
-        attributes.remove(attr);
+        int index = indexOf(attr);
+        if (index >= 0) {
+            remove(index);
+        }
         return this;
     }
 
     // 删除属性内单个值,如果仅有一个直接删除
     public HTMLTag removeAttribute(Attribute attr, String value) {
-        String attrValue = attributes.get(attr);
-        if (attrValue == null || attrValue.trim().equals("")) {
+        int index = indexOf(attr);
+        if (index < 0) {
+            return this;
+        }
+        String attrValue = attr_values[index];
+        if (attrValue.trim().equals("")) {
             return this;
         }
 
-        // new ArrayList 解决 UnsupportedOperationException
-        List<String> attrValueList = new ArrayList(Arrays.asList(attrValue.split(ATTR_SPACE)));
-        if (attrValueList.size() == 1 && attrValueList.contains(value)) {
-            attributes.remove(attr);
+        // 与 split(" ") 的结果一致，忽略末尾的空值
+        int len = attrValue.length();
+        while (attrValue.charAt(len - 1) == ATTR_SPACE_CHAR) {
+            len--;
+        }
+
+        int start = value == null ? -1 : findToken(attrValue, len, value);
+        if (start == 0 && value.length() == len) {
+            remove(index);
             return this;
         }
-        attrValueList.remove(value);
 
-        StringBuffer attrStr = new StringBuffer("");
-        for (int i = 0, len = attrValueList.size(); i < len; i++) {
-            attrStr.append(attrValueList.get(i));
-            if (i != len - 1) {
-                attrStr.append(ATTR_SPACE);
+        String result;
+        if (start < 0) {
+            result = attrValue.substring(0, len);
+        } else if (start == 0) {
+            result = attrValue.substring(value.length() + 1, len);
+        } else {
+            result = new StringBuilder(len - value.length() - 1)
+                    .append(attrValue, 0, start - 1)
+                    .append(attrValue, start + value.length(), len)
+                    .toString();
+        }
+        attr_values[index] = result;
+        return this;
+    }
+
+    private int indexOf(Attribute attr) {
+        for (int i = 0; i < attr_count; i++) {
+            if (attr_ordinals[i] == attr.ordinal) {
+                return i;
             }
         }
+        return -1;
+    }
 
-        attributes.put(attr, attrStr.toString());
-        return this;
+    private void append(Attribute attr, String value) {
+        if (attr_ordinals == null) {
+            attr_ordinals = new short[INITIAL_CAPACITY];
+            attr_values = new String[INITIAL_CAPACITY];
+        } else if (attr_count == attr_ordinals.length) {
+            attr_ordinals = Arrays.copyOf(attr_ordinals, attr_count * 2);
+            attr_values = Arrays.copyOf(attr_values, attr_count * 2);
+        }
+        attr_ordinals[attr_count] = attr.ordinal;
+        attr_values[attr_count] = value;
+        attr_count++;
+    }
+
+    private void remove(int index) {
+        int moved = attr_count - index - 1;
+        if (moved > 0) {
+            System.arraycopy(attr_ordinals, index + 1, attr_ordinals, index, moved);
+            System.arraycopy(attr_values, index + 1, attr_values, index, moved);
+        }
+        attr_values[--attr_count] = null;
+    }
+
+    // 以空格分隔的值中是否包含 token，不拆分字符串
+    private static boolean containsToken(String attrValue, String token) {
+        return findToken(attrValue, attrValue.length(), token) >= 0;
+    }
+
+    // token 在 attrValue[0, len) 中第一次作为完整值出现的位置，没有则返回 -1
+    private static int findToken(String attrValue, int len, String token) {
+        int tokenLen = token.length();
+        int pos = 0;
+        while (true) {
+            int end = attrValue.indexOf(ATTR_SPACE_CHAR, pos);
+            if (end < 0 || end > len) {
+                end = len;
+            }
+            if (end - pos == tokenLen && attrValue.regionMatches(pos, token, 0, tokenLen)) {
+                return pos;
+            }
+            if (end == len) {
+                return -1;
+            }
+            pos = end + 1;
+        }
     }
 
     @Override
     public String toString() {
-        StringBuffer tagStr = new StringBuffer("");
+        StringBuilder tagStr = new StringBuilder();
         tagStr.append("<").append(tag);
 
-        int size = attributes.size();
-        if (size > 0) {
+        if (attr_count > 0) {
             tagStr.append(ATTR_SPACE);
         }
 
-        int i = 0;
-        for(Map.Entry<Attribute, String> entry : attributes.entrySet()) {
-            tagStr.append(entry.getKey()).append("=\"").append(entry.getValue()).append("\"");
-            if (++i != size) {
+        for (int i = 0; i < attr_count; i++) {
+            tagStr.append(Attribute.valueOf(attr_ordinals[i])).append("=\"");
+            HtmlEscaper.escape(attr_values[i], tagStr);
+            tagStr.append("\"");
+            if (i != attr_count - 1) {
                 tagStr.append(ATTR_SPACE);
             }
         }
@@ -115,7 +190,7 @@ public class HTMLTag {
             tagStr.append("/>");
         } else {
             tagStr.append(">");
-            tagStr.append(content);
+            HtmlEscaper.escape(content, tagStr);
             tagStr.append("</").append(tag).append(">");
         }
         return tagStr.toString();
@@ -254,6 +329,13 @@ public class HTMLTag {
 
         Attribute(String id) {
             name = id;
+            ordinal = (short) count;
+            values[count++] = this;
+        }
+
+        // 按 ordinal 取属性
+        static Attribute valueOf(int ordinal) {
+            return values[ordinal];
         }
 
         public String toString() {
@@ -261,6 +343,11 @@ public class HTMLTag {
         }
 
         private String name;
+        final short ordinal; // 定义顺序，HTMLTag 按此存储属性
+
+        // 必须在下面的常量之前初始化
+        private static final Attribute[] values = new Attribute[128];
+        private static int count;
 
         public static final Attribute SIZE = new Attribute("size");
         public static final Attribute COLOR = new Attribute("color");
@@ -0,0 +1,136 @@
+package com.qianmi.app.util;
+
+import java.io.IOException;
+
+/**
+ * HTML 转义，用于标签内容和属性值
+ * escape 转义 < > " ' &，输出在浏览器中还原后与输入完全相同，用于链接、游标和 HTMLTag 的内容、属性值；
+ * escapeLabel 只用于配置的上一页、下一页、省略号文字，已经是 &laquo; &#171; 形式的字符引用保持不变，其他同 escape。
+ * 一次扫描，不需要转义的连续字符整段写出，输入无需转义时不分配任何对象
+ *
+ * @author mysoko
+ */
+public final class HtmlEscaper {
+
+    private static final int MAX_REFERENCE_LENGTH = 32; // 字符引用最长长度，如 &CounterClockwiseContourIntegral;
+
+    private HtmlEscaper() {
+    }
+
+    /**
+     * 是否有需要转义的字符
+     */
+    public static boolean needsEscape(CharSequence s) {
+        return needsEscape(s, false);
+    }
+
+    /**
+     * 转义后的字符串，无需转义时返回 s 本身
+     */
+    public static String escape(String s) {
+        return escape(s, false);
+    }
+
+    /**
+     * 转义上一页、下一页等配置的文字，其中的字符引用（如 &laquo;）保持不变，由浏览器显示为对应字符
+     */
+    public static String escapeLabel(String s) {
+        return escape(s, true);
+    }
+
+    private static boolean needsEscape(CharSequence s, boolean keepReferences) {
+        for (int i = 0, len = s.length(); i < len; i++) {
+            if (replacement(s, i, keepReferences) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String escape(String s, boolean keepReferences) {
+        if (!needsEscape(s, keepReferences)) {
+            return s;
+        }
+        StringBuilder escaped = new StringBuilder(s.length() + 16);
+        int from = 0;
+        for (int i = 0, len = s.length(); i < len; i++) {
+            String replacement = replacement(s, i, keepReferences);
+            if (replacement != null) {
+                escaped.append(s, from, i).append(replacement);
+                from = i + 1;
+            }
+        }
+        return escaped.append(s, from, s.length()).toString();
+    }
+
+    public static void escape(CharSequence s, StringBuilder out) {
+        Pagination.writeInMemory(() -> escape(s, (Appendable) out));
+    }
+
+    public static void escape(CharSequence s, Appendable out) throws IOException {
+        int from = 0;
+        for (int i = 0, len = s.length(); i < len; i++) {
+            String replacement = replacement(s, i, false);
+            if (replacement != null) {
+                out.append(s, from, i).append(replacement);
+                from = i + 1;
+            }
+        }
+        out.append(s, from, s.length());
+    }
+
+    // s[i] 的转义结果，无需转义时返回 null；keepReferences 为 true 时字符引用开头的 & 不转义
+    private static String replacement(CharSequence s, int i, boolean keepReferences) {
+        switch (s.charAt(i)) {
+            case '<':
+                return "&lt;";
+            case '>':
+                return "&gt;";
+            case '"':
+                return "&quot;";
+            case '\'':
+                return "&#39;";
+            case '&':
+                return keepReferences && isReference(s, i) ? null : "&amp;";
+            default:
+                return null;
+        }
+    }
+
+    // s[i] 处的 & 是否开始一个字符引用：&name; &#123; &#x7B;
+    private static boolean isReference(CharSequence s, int i) {
+        int len = Math.min(s.length(), i + MAX_REFERENCE_LENGTH);
+        int j = i + 1;
+        boolean hex = false;
+        if (j < len && s.charAt(j) == '#') {
+            j++;
+            if (j < len && (s.charAt(j) == 'x' || s.charAt(j) == 'X')) {
+                hex = true;
+                j++;
+            }
+            int start = j;
+            while (j < len && (isAsciiDigit(s.charAt(j)) || hex && isAsciiHexLetter(s.charAt(j)))) {
+                j++;
+            }
+            return j > start && j < len && s.charAt(j) == ';';
+        }
+        int start = j;
+        while (j < len && isAsciiLetterOrDigit(s.charAt(j))) {
+            j++;
+        }
+        return j > start && j < len && s.charAt(j) == ';';
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isAsciiDigit(c);
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiHexLetter(char c) {
+        return (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.qianmi.app.util;
+
+import java.io.IOException;
+
+/**
+ * 输出 drawLinks() 的 HTML，片段由 PanelTemplate 预先编译，
+ * 每一项只需写出片段、页码和链接中的数字
+ *
+ * @author mysoko
+ */
+final class HtmlPanelWriter implements PanelVisitor {
+
+    private final PaginationConfig config;
+    private final PanelTemplate template;
+    private final Appendable out;
+
+    HtmlPanelWriter(PaginationConfig config, Appendable out) {
+        this.config = config;
+        this.template = config.getPanel_template();
+        this.out = out;
+    }
+
+    @Override
+    public void begin() {
+    }
+
+    @Override
+    public void prev(long page_id, CharSequence cursor, boolean current) throws IOException {
+        if (current) {
+            out.append(template.current_prev);
+        } else {
+            link(template.prev_link, page_id, cursor);
+        }
+    }
+
+    @Override
+    public void page(long page_id, CharSequence cursor, boolean current) throws IOException {
+        if (current) {
+            out.append(template.current_start);
+            Pagination.appendNumber(page_id + 1, out);
+            out.append(template.current_end);
+        } else {
+            link(template.page_link, page_id, cursor);
+            Pagination.appendNumber(page_id + 1, out);
+            out.append(template.page_link_end);
+        }
+    }
+
+    @Override
+    public void ellipsis() throws IOException {
+        out.append(template.ellipsis);
+    }
+
+    @Override
+    public void next(long page_id, CharSequence cursor, boolean current) throws IOException {
+        if (current) {
+            out.append(template.current_next);
+        } else {
+            link(template.next_link, page_id, cursor);
+        }
+    }
+
+    @Override
+    public void end() {
+    }
+
+    private void link(String[] fragments, long page_id, CharSequence cursor) throws IOException {
+        config.getLink_template().writeHtml(out, fragments, page_id, config.getItems_per_page(), cursor);
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.qianmi.app.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 把渲染记录为 JFR 事件 com.qianmi.pagination.Render，需要 JDK 11 及以上
+ * 未开启录制或事件被禁用时只有一次 shouldCommit 判断
+ *
+ * @author mysoko
+ */
+public class JfrPaginationObserver implements PaginationObserver {
+
+    @Override
+    public void rendered(PaginationConfig config, long current_page, long np, long nanos) {
+        RenderEvent event = new RenderEvent();
+        if (event.shouldCommit()) {
+            event.currentPage = current_page;
+            event.numPages = np;
+            event.itemsPerPage = config.getItems_per_page();
+            event.renderTime = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void produced(PaginationConfig config, long length) {
+        ProducedEvent event = new ProducedEvent();
+        if (event.shouldCommit()) {
+            event.length = length;
+            event.commit();
+        }
+    }
+
+    @Name("com.qianmi.pagination.Render")
+    @Label("Pagination Render")
+    @Category("Pagination")
+    @Description("One pagination panel rendered")
+    @StackTrace(false)
+    static class RenderEvent extends Event {
+
+        @Label("Current Page")
+        long currentPage;
+
+        @Label("Pages")
+        long numPages;
+
+        @Label("Items Per Page")
+        int itemsPerPage;
+
+        @Label("Render Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long renderTime;
+    }
+
+    @Name("com.qianmi.pagination.Produced")
+    @Label("Pagination Output")
+    @Category("Pagination")
+    @Description("Characters or bytes produced by one render")
+    @StackTrace(false)
+    static class ProducedEvent extends Event {
+
+        @Label("Length")
+        @DataAmount
+        long length;
+    }
+
+}
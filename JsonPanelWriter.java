@@ -0,0 +1,156 @@
+package com.qianmi.app.util;
+
+import java.io.IOException;
+
+/**
+ * 以 JSON 数组流式输出分页面板，不生成中间对象，如：
+ * [{"type":"prev","page":1,"text":"Prev","href":"?p=0"},{"type":"page","page":2,"current":true},
+ * {"type":"ellipsis","text":"..."},{"type":"next","page":3,"text":"Next","href":"?p=2"}]
+ *
+ * page 从1开始，与显示的页码一致；当前页不输出 href
+ * 总数为0时上一页、下一页没有目标页，按当前页输出，不输出 href
+ *
+ * @author mysoko
+ */
+public class JsonPanelWriter implements PanelVisitor {
+
+    private final PaginationConfig config;
+    private final Appendable out;
+    private final Appendable escaped;   // 写入字符串值时转义
+    private boolean first;
+
+    public JsonPanelWriter(PaginationConfig config, Appendable out) {
+        this.config = config;
+        this.out = out;
+        this.escaped = new Escaper(out);
+    }
+
+    @Override
+    public void begin() throws IOException {
+        out.append('[');
+        first = true;
+    }
+
+    @Override
+    public void prev(long page_id, CharSequence cursor, boolean current) throws IOException {
+        item("prev", Math.max(page_id, 0), cursor, current || page_id < 0, config.getPrev_text());
+    }
+
+    @Override
+    public void page(long page_id, CharSequence cursor, boolean current) throws IOException {
+        item("page", page_id, cursor, current, null);
+    }
+
+    @Override
+    public void ellipsis() throws IOException {
+        open("ellipsis");
+        out.append(",\"text\":\"");
+        escaped.append(config.getEllipse_text());
+        out.append("\"}");
+    }
+
+    @Override
+    public void next(long page_id, CharSequence cursor, boolean current) throws IOException {
+        item("next", Math.max(page_id, 0), cursor, current || page_id < 0, config.getNext_text());
+    }
+
+    @Override
+    public void end() throws IOException {
+        out.append(']');
+    }
+
+    private void open(String type) throws IOException {
+        if (!first) {
+            out.append(',');
+        }
+        first = false;
+        out.append("{\"type\":\"").append(type).append('"');
+    }
+
+    private void item(String type, long page_id, CharSequence cursor, boolean current, String text) throws IOException {
+        open(type);
+        out.append(",\"page\":");
+        Pagination.appendNumber(page_id + 1, out);
+        if (text != null) {
+            out.append(",\"text\":\"");
+            escaped.append(text);
+            out.append('"');
+        }
+        if (current) {
+            out.append(",\"current\":true");
+        } else {
+            out.append(",\"href\":\"");
+            config.getLink_template().write(escaped, page_id, config.getItems_per_page(), cursor);
+            out.append('"');
+        }
+        out.append('}');
+    }
+
+    /**
+     * JSON 字符串转义，无需转义的连续字符整段写出
+     */
+    private static final class Escaper implements Appendable {
+
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        private final Appendable out;
+
+        Escaper(Appendable out) {
+            this.out = out;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) throws IOException {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            int from = start;
+            for (int i = start; i < end; i++) {
+                char c = csq.charAt(i);
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    continue;
+                }
+                out.append(csq, from, i);
+                escape(c);
+                from = i + 1;
+            }
+            out.append(csq, from, end);
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) throws IOException {
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                out.append(c);
+            } else {
+                escape(c);
+            }
+            return this;
+        }
+
+        private void escape(char c) throws IOException {
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+package com.qianmi.app.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 预编译的链接模板
+ * link_to 只解析一次，拆成字面量片段和占位符，渲染时直接写入输出，不产生中间字符串
+ *
+ * 支持的占位符：
+ * __id__      页码，从0开始
+ * __page__    页码，从1开始
+ * __size__    每页数量 items_per_page
+ * __offset__  偏移量 __id__ * __size__，溢出时为 Long.MAX_VALUE
+ * __cursor__  游标，见 CursorWindow，按页码分页时为空
+ *
+ * @author mysoko
+ */
+public final class LinkTemplate {
+
+    public static final String ID = "__id__";
+    public static final String PAGE = "__page__";
+    public static final String SIZE = "__size__";
+    public static final String OFFSET = "__offset__";
+    public static final String CURSOR = "__cursor__";
+
+    // 占位符按 slot 值排列
+    private static final String[] PLACEHOLDERS = {ID, PAGE, SIZE, OFFSET, CURSOR};
+    private static final int SLOT_ID = 0;
+    private static final int SLOT_PAGE = 1;
+    private static final int SLOT_SIZE = 2;
+    private static final int SLOT_OFFSET = 3;
+    private static final int SLOT_CURSOR = 4;
+
+    private final String source;     // 原始模板
+    private final String[] literals; // 字面量片段，比 slots 多一个
+    private final int[] slots;       // 占位符
+    private final String[] html_literals; // 转义后的字面量片段，输出到 href 属性时使用
+
+    private LinkTemplate(String source, String[] literals, int[] slots) {
+        this.source = source;
+        this.literals = literals;
+        this.slots = slots;
+        this.html_literals = new String[literals.length];
+        for (int i = 0; i < literals.length; i++) {
+            html_literals[i] = HtmlEscaper.escape(literals[i]);
+        }
+    }
+
+    /**
+     * 编译模板，从左到右匹配占位符（与 String.replace 相同，不重叠）
+     */
+    public static LinkTemplate compile(String source) {
+        CompiledTemplate template = CompiledTemplate.compile(source, PLACEHOLDERS);
+        return new LinkTemplate(source, template.literals, template.slots);
+    }
+
+    /**
+     * 是否包含占位符，不含时所有页的链接都相同
+     */
+    public boolean isConstant() {
+        return slots.length == 0;
+    }
+
+    /**
+     * 输出 page_id 对应的链接
+     */
+    public void write(Appendable out, long page_id, int items_per_page) throws IOException {
+        write(out, page_id, items_per_page, null);
+    }
+
+    /**
+     * 输出 page_id 对应的链接，cursor 为空时 __cursor__ 输出空串
+     */
+    public void write(Appendable out, long page_id, int items_per_page, CharSequence cursor) throws IOException {
+        write(out, literals, false, page_id, items_per_page, cursor);
+    }
+
+    /**
+     * 输出到 HTML 属性值中，字面量已预先转义，游标按需转义
+     */
+    public void writeHtml(Appendable out, long page_id, int items_per_page, CharSequence cursor) throws IOException {
+        write(out, html_literals, true, page_id, items_per_page, cursor);
+    }
+
+    /**
+     * 把 prefix、suffix 与转义后的首尾字面量合并，得到可直接输出的 HTML 片段，
+     * 片段之间依次填入各个占位符，见 writeHtml(Appendable, String[], ...)
+     */
+    String[] htmlFragments(String prefix, String suffix) {
+        String[] fragments = html_literals.clone();
+        fragments[0] = prefix + fragments[0];
+        fragments[slots.length] = fragments[slots.length] + suffix;
+        return fragments;
+    }
+
+    static byte[][] utf8(String[] fragments) {
+        byte[][] bytes = new byte[fragments.length][];
+        for (int i = 0; i < fragments.length; i++) {
+            bytes[i] = fragments[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    // 输出 htmlFragments 编译的片段
+    void writeHtml(Appendable out, String[] fragments, long page_id, int items_per_page, CharSequence cursor) throws IOException {
+        write(out, fragments, true, page_id, items_per_page, cursor);
+    }
+
+    private void write(Appendable out, String[] fragments, boolean html, long page_id, int items_per_page, CharSequence cursor) throws IOException {
+        for (int i = 0; i < slots.length; i++) {
+            out.append(fragments[i]);
+            switch (slots[i]) {
+                case SLOT_ID:
+                    Pagination.appendNumber(page_id, out);
+                    break;
+                case SLOT_PAGE:
+                    Pagination.appendNumber(page_id + 1, out);
+                    break;
+                case SLOT_SIZE:
+                    Pagination.appendNumber(items_per_page, out);
+                    break;
+                case SLOT_OFFSET:
+                    Pagination.appendNumber(Pagination.multiplySaturated(page_id, items_per_page), out);
+                    break;
+                case SLOT_CURSOR:
+                    if (cursor == null) {
+                        break;
+                    }
+                    if (html) {
+                        HtmlEscaper.escape(cursor, out);
+                    } else {
+                        out.append(cursor);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+        out.append(fragments[slots.length]);
+    }
+
+    // 以 UTF-8 字节输出 htmlFragments 编译并编码后的片段
+    void writeHtml(ByteSink out, byte[][] fragments, long page_id, int items_per_page, CharSequence cursor) throws IOException {
+        for (int i = 0; i < slots.length; i++) {
+            out.write(fragments[i]);
+            switch (slots[i]) {
+                case SLOT_ID:
+                    out.writeNumber(page_id);
+                    break;
+                case SLOT_PAGE:
+                    out.writeNumber(page_id + 1);
+                    break;
+                case SLOT_SIZE:
+                    out.writeNumber(items_per_page);
+                    break;
+                case SLOT_OFFSET:
+                    out.writeNumber(Pagination.multiplySaturated(page_id, items_per_page));
+                    break;
+                case SLOT_CURSOR:
+                    if (cursor == null) {
+                        break;
+                    }
+                    if (HtmlEscaper.needsEscape(cursor)) {
+                        out.writeUtf8(HtmlEscaper.escape(cursor.toString()));
+                    } else {
+                        out.writeUtf8(cursor);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+        out.write(fragments[slots.length]);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.qianmi.app.util;
+
+/**
+ * 分页面板中的一项，用于 JSON 接口或前端自行渲染
+ *
+ * @author mysoko
+ */
+public final class PageItem {
+
+    public enum Type {
+        PREV, PAGE, ELLIPSIS, NEXT
+    }
+
+    private final Type type;
+    private final long page_id;   // 页码，从0开始，省略号为 -1
+    private final String text;    // 显示的文字
+    private final String href;    // 链接，当前页和省略号为空
+    private final boolean current;
+
+    public PageItem(Type type, long page_id, String text, String href, boolean current) {
+        this.type = type;
+        this.page_id = page_id;
+        this.text = text;
+        this.href = href;
+        this.current = current;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getPage_id() {
+        return page_id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getHref() {
+        return href;
+    }
+
+    public boolean isCurrent() {
+        return current;
+    }
+
+    @Override
+    public String toString() {
+        return type + "{" + text + (current ? ", current" : "") + (href == null ? "" : ", " + href) + "}";
+    }
+
+}
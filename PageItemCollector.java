@@ -0,0 +1,73 @@
+package com.qianmi.app.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 把分页面板收集为 PageItem 列表
+ *
+ * @author mysoko
+ */
+public class PageItemCollector implements PanelVisitor {
+
+    private final PaginationConfig config;
+    private final List<PageItem> items = new ArrayList<>();
+    private final StringBuilder href = new StringBuilder();
+
+    public PageItemCollector(PaginationConfig config) {
+        this.config = config;
+    }
+
+    public List<PageItem> getItems() {
+        return items;
+    }
+
+    @Override
+    public void begin() {
+        items.clear();
+    }
+
+    @Override
+    public void prev(long page_id, CharSequence cursor, boolean current) throws IOException {
+        link(PageItem.Type.PREV, page_id, config.getPrev_text(), cursor, current);
+    }
+
+    @Override
+    public void page(long page_id, CharSequence cursor, boolean current) throws IOException {
+        items.add(new PageItem(PageItem.Type.PAGE, page_id, String.valueOf(page_id + 1), href(page_id, cursor, current), current));
+    }
+
+    @Override
+    public void ellipsis() {
+        items.add(new PageItem(PageItem.Type.ELLIPSIS, -1, config.getEllipse_text(), null, false));
+    }
+
+    @Override
+    public void next(long page_id, CharSequence cursor, boolean current) throws IOException {
+        link(PageItem.Type.NEXT, page_id, config.getNext_text(), cursor, current);
+    }
+
+    @Override
+    public void end() {
+    }
+
+    // 总数为0时上一页、下一页没有目标页，按当前页收集
+    private void link(PageItem.Type type, long page_id, String text, CharSequence cursor, boolean current) throws IOException {
+        if (page_id < 0) {
+            items.add(new PageItem(type, 0, text, null, true));
+            return;
+        }
+        items.add(new PageItem(type, page_id, text, href(page_id, cursor, current), current));
+    }
+
+    private String href(long page_id, CharSequence cursor, boolean current) throws IOException {
+        if (current) {
+            return null;
+        }
+        href.setLength(0);
+        config.getLink_template().write(href, page_id, config.getItems_per_page(), cursor);
+        return href.toString();
+    }
+
+}
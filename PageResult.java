@@ -0,0 +1,56 @@
+package com.qianmi.app.util;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一页的查询结果和对应的分页面板，由 AsyncPagination 生成
+ *
+ * @author mysoko
+ */
+public final class PageResult<T> {
+
+    public static final long UNKNOWN = -1;
+
+    private final List<T> items;        // 当前页的数据
+    private final long current_page;    // 当前页数
+    private final long total_entries;   // 总共记录数，总数未知时为 UNKNOWN
+    private final String panel;         // 分页面板
+
+    public PageResult(List<T> items, long current_page, long total_entries, String panel) {
+        this.items = items == null ? Collections.<T>emptyList() : Collections.unmodifiableList(items);
+        this.current_page = current_page;
+        this.total_entries = total_entries;
+        this.panel = panel;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public long getCurrent_page() {
+        return current_page;
+    }
+
+    public long getTotal_entries() {
+        return total_entries;
+    }
+
+    /**
+     * 总数是否已知，为 false 时面板不带末页链接，见 Pagination.renderOpenEnded
+     */
+    public boolean isTotalKnown() {
+        return total_entries != UNKNOWN;
+    }
+
+    public String getPanel() {
+        return panel;
+    }
+
+    @Override
+    public String toString() {
+        return "PageResult{current_page=" + current_page + ", total_entries=" + total_entries
+                + ", items=" + items.size() + "}";
+    }
+
+}
@@ -1,5 +1,11 @@
 package com.qianmi.app.util;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 通用分页
  *
@@ -11,7 +17,7 @@ public class Pagination {
     private int num_display_entries = 10;    // 显示分页链接数
     private int current_page = 0;            // 当前页数
     private int num_edge_entries = 0;        // 开始和结尾几个数字
-    private String link_to = "#";            // 链接地址
+    private String link_to = "#";            // 链接地址，占位符见 LinkTemplate
     private String prev_text = "Prev";       // 上一页，显示的文字
     private String next_text = "Next";       // 下一页，显示的文字
     private String ellipse_text = "...";     // 省略号，显示的文字
@@ -20,12 +26,16 @@ public class Pagination {
 
     private Integer maxentries; // 总共记录数
 
+    private PaginationConfig config; // 由上面的设置生成，修改设置后重新生成
+
     public void setItems_per_page(int items_per_page) {
         this.items_per_page = items_per_page;
+        this.config = null;
     }
 
     public void setNum_display_entries(int num_display_entries) {
         this.num_display_entries = num_display_entries;
+        this.config = null;
     }
 
     public void setCurrent_page(int current_page) {
@@ -34,41 +44,68 @@ public class Pagination {
 
     public void setNum_edge_entries(int num_edge_entries) {
         this.num_edge_entries = num_edge_entries;
+        this.config = null;
     }
 
     public void setLink_to(String link_to) {
         this.link_to = link_to;
+        this.config = null;
     }
 
     public void setPrev_text(String prev_text) {
         this.prev_text = prev_text;
+        this.config = null;
     }
 
     public void setNext_text(String next_text) {
         this.next_text = next_text;
+        this.config = null;
     }
 
     public void setEllipse_text(String ellipse_text) {
         this.ellipse_text = ellipse_text;
+        this.config = null;
     }
 
     public void setPrev_show_always(boolean prev_show_always) {
         this.prev_show_always = prev_show_always;
+        this.config = null;
     }
 
     public void setNext_show_always(boolean next_show_always) {
         this.next_show_always = next_show_always;
+        this.config = null;
     }
 
     public void setMaxentries(Integer maxentries) {
         this.maxentries = (maxentries == null || maxentries < 0) ? 1 : maxentries;
     }
 
+    /**
+     * 当前设置对应的不可变配置
+     */
+    public PaginationConfig getConfig() {
+        if (config == null) {
+            config = PaginationConfig.builder()
+                    .setItems_per_page(items_per_page)
+                    .setNum_display_entries(num_display_entries)
+                    .setNum_edge_entries(num_edge_entries)
+                    .setLink_to(link_to)
+                    .setPrev_text(prev_text)
+                    .setNext_text(next_text)
+                    .setEllipse_text(ellipse_text)
+                    .setPrev_show_always(prev_show_always)
+                    .setNext_show_always(next_show_always)
+                    .build();
+        }
+        return config;
+    }
+
     /**
      * 计算最大页数
      */
     public int numPages() {
-        return (int) Math.ceil((double)maxentries / (double)items_per_page);
+        return (int) numPages(getConfig(), maxentries);
     }
 
     /**
@@ -76,93 +113,555 @@ public class Pagination {
      * current_page 和 num_display_entries
      */
     public int[] getInterval() {
-        int ne_half = (int) Math.ceil((double)num_display_entries / 2d);
-        int np = numPages();
-        int upper_limit = np - num_display_entries;
-        int start = current_page > ne_half ? Math.max(Math.min(current_page - ne_half, upper_limit), 0) : 0;
-        int end = current_page > ne_half ? Math.min(current_page + ne_half, np) : Math.min(num_display_entries, np);
-        return new int[]{start, end};
+        long[] interval = getInterval(getConfig(), current_page, numPages());
+        return new int[]{(int) interval[0], (int) interval[1]};
     }
 
     public String drawLinks() {
-        StringBuffer panel = new StringBuffer("");
-        int[] interval = getInterval();
-        int np = numPages();
+        return render(getConfig(), current_page, maxentries);
+    }
 
-        // Generate "Previous"-Link
-        if (!prev_text.equals("") && (current_page > 0 || prev_show_always)) {
-            appendItem(current_page - 1, new Appendopts(prev_text, "prev"), np, panel);
+    /**
+     * 直接输出到调用方的 StringBuilder
+     */
+    public void drawLinks(StringBuilder out) {
+        render(getConfig(), current_page, maxentries, out);
+    }
+
+    /**
+     * 直接输出到调用方的 Appendable（如 Servlet Writer），每个链接不再创建任何对象
+     */
+    public void drawLinks(Appendable out) throws IOException {
+        render(getConfig(), current_page, maxentries, out);
+    }
+
+    /**
+     * 以 renderer 指定的格式输出，如 PaginationRenderer.BOOTSTRAP
+     */
+    public String drawLinks(PaginationRenderer renderer) {
+        return render(getConfig(), current_page, maxentries, renderer);
+    }
+
+    /**
+     * 计算最大页数，totalEntries 小于0时按1条处理（同 setMaxentries）
+     * 使用整数向上取整，支持超过 2^31 条的记录
+     */
+    public static long numPages(PaginationConfig config, long totalEntries) {
+        long maxentries = totalEntries < 0 ? 1 : totalEntries;
+        int items_per_page = config.getItems_per_page();
+        return maxentries / items_per_page + (maxentries % items_per_page == 0 ? 0 : 1);
+    }
+
+    /**
+     * 可以访问的页数，即受 max_pages 限制的总页数
+     */
+    public static long reachablePages(PaginationConfig config, long totalEntries) {
+        return Math.min(numPages(config, totalEntries), config.getMax_pages());
+    }
+
+    /**
+     * 总数未知时的页数：后面可能还有页，至少到当前页的下一页，同样受 max_pages 限制
+     */
+    private static long openPages(PaginationConfig config, long currentPage, long knownEntries) {
+        long np = reachablePages(config, knownEntries);
+        long next = Math.min(addSaturated(Math.max(currentPage, 0), 2), config.getMax_pages());
+        return Math.max(np, next);
+    }
+
+    /**
+     * 请求的页码超出可访问范围时，返回应当跳转到的页码（最近的可访问页），否则原样返回
+     * 返回值与 requestedPage 不同时调用方可以重定向，或直接按返回的页码查询，避免过深的 OFFSET 查询
+     */
+    public static long resolvePage(PaginationConfig config, long requestedPage, long totalEntries) {
+        long np = reachablePages(config, totalEntries);
+        if (requestedPage < 0 || np == 0) {
+            return 0;
+        }
+        return requestedPage < np ? requestedPage : np - 1;
+    }
+
+    public static boolean isReachable(PaginationConfig config, long page, long totalEntries) {
+        return page >= 0 && page < reachablePages(config, totalEntries);
+    }
+
+    /**
+     * 计算开始和结束的分页链接
+     * 当前页接近 Long.MAX_VALUE 时也不会溢出
+     */
+    public static long[] getInterval(PaginationConfig config, long current_page, long np) {
+        long num_display_entries = config.getNum_display_entries();
+        long ne_half = -Math.floorDiv(-num_display_entries, 2L); // 向上取整
+        long upper_limit = addSaturated(np, -num_display_entries);
+        long start = current_page > ne_half ? Math.max(Math.min(addSaturated(current_page, -ne_half), upper_limit), 0) : 0;
+        long end = current_page > ne_half ? Math.min(addSaturated(current_page, ne_half), np) : Math.min(num_display_entries, np);
+        return new long[]{start, end};
+    }
+
+    // 溢出时取 Long.MAX_VALUE / Long.MIN_VALUE
+    static long addSaturated(long a, long b) {
+        long r = a + b;
+        if (((a ^ r) & (b ^ r)) < 0) {
+            return a < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return r;
+    }
+
+    // 溢出时取 Long.MAX_VALUE / Long.MIN_VALUE
+    static long multiplySaturated(long a, long b) {
+        long r = a * b;
+        if (((Math.abs(a) | Math.abs(b)) >>> 31) != 0
+                && ((b != 0 && r / b != a) || (a == Long.MIN_VALUE && b == -1))) {
+            return (a < 0) == (b < 0) ? Long.MAX_VALUE : Long.MIN_VALUE;
         }
+        return r;
+    }
+
+    /**
+     * 无状态渲染，config 可在多个线程间共享
+     */
+    public static String render(PaginationConfig config, long currentPage, long totalEntries) {
+        StringBuilder panel = new StringBuilder();
+        render(config, currentPage, totalEntries, panel);
+        return panel.toString();
+    }
+
+    public static void render(PaginationConfig config, long currentPage, long totalEntries, StringBuilder out) {
+        int length = out.length();
+        writeInMemory(() -> render(config, currentPage, totalEntries, (Appendable) out));
+        if (config.getObserver() != null) {
+            config.getObserver().produced(config, out.length() - length);
+        }
+    }
+
+    public static void render(PaginationConfig config, long currentPage, long totalEntries, Appendable out) throws IOException {
+        visit(config, currentPage, totalEntries, new HtmlPanelWriter(config, out));
+    }
+
+    /**
+     * 以 UTF-8 字节写入 ByteBuffer（如 Netty/NIO 的响应缓冲），空间不足时抛出 BufferOverflowException
+     */
+    public static void render(PaginationConfig config, long currentPage, long totalEntries, ByteBuffer out) {
+        int position = out.position();
+        writeInMemory(() -> visit(config, currentPage, totalEntries, new Utf8PanelWriter(config, ByteSink.of(out))));
+        if (config.getObserver() != null) {
+            config.getObserver().produced(config, out.position() - position);
+        }
+    }
+
+    /**
+     * 以 UTF-8 字节写入 OutputStream，每个片段直接写出，建议使用带缓冲的流
+     */
+    public static void render(PaginationConfig config, long currentPage, long totalEntries, OutputStream out) throws IOException {
+        visit(config, currentPage, totalEntries, new Utf8PanelWriter(config, ByteSink.of(out)));
+    }
+
+    /**
+     * 以 renderer 指定的格式输出，见 PaginationRenderer
+     */
+    public static String render(PaginationConfig config, long currentPage, long totalEntries, PaginationRenderer renderer) {
+        StringBuilder panel = new StringBuilder();
+        writeInMemory(() -> render(config, currentPage, totalEntries, renderer, panel));
+        return produced(config, panel);
+    }
 
-        // Generate starting points
-        if (interval[0] > 0 && num_edge_entries > 0) {
-            int end = Math.min(num_edge_entries, interval[0]);
-            for (int i = 0; i < end; i++) {
-                appendItem(i, null, np, panel);
+    public static void render(PaginationConfig config, long currentPage, long totalEntries, PaginationRenderer renderer, Appendable out) throws IOException {
+        visit(config, currentPage, totalEntries, renderer.open(config, out));
+    }
+
+    /**
+     * 总数未知时渲染，只知道至少有 knownEntries 条记录，不需要 COUNT(*)
+     * 不输出末尾的 num_edge_entries 链接，在已知的最后一页之后输出省略号表示还有更多；
+     * 当前页是已知的最后一页时仍输出下一页的链接
+     */
+    public static String renderOpenEnded(PaginationConfig config, long currentPage, long knownEntries) {
+        StringBuilder panel = new StringBuilder();
+        writeInMemory(() -> renderOpenEnded(config, currentPage, knownEntries, panel));
+        return produced(config, panel);
+    }
+
+    public static void renderOpenEnded(PaginationConfig config, long currentPage, long knownEntries, Appendable out) throws IOException {
+        visitOpenEnded(config, currentPage, knownEntries, new HtmlPanelWriter(config, out));
+    }
+
+    /**
+     * 查询当前页时多取一条（LIMIT items_per_page + 1），fetchedRows 为实际取到的条数
+     * 取满说明后面还有，按至少到下一页渲染；否则当前页就是最后一页，总数已精确可知
+     */
+    public static String renderLookahead(PaginationConfig config, long currentPage, int fetchedRows) {
+        long knownEntries = knownEntries(config, currentPage, fetchedRows);
+        if (fetchedRows > config.getItems_per_page()) {
+            return renderOpenEnded(config, currentPage, knownEntries);
+        }
+        return render(config, currentPage, knownEntries);
+    }
+
+    /**
+     * 当前页之前的记录数加上本页取到的条数
+     */
+    public static long knownEntries(PaginationConfig config, long currentPage, int fetchedRows) {
+        long before = currentPage <= 0 ? 0 : multiplySaturated(currentPage, config.getItems_per_page());
+        return addSaturated(before, fetchedRows);
+    }
+
+    /**
+     * 总数异步计算（如 CompletableFuture.supplyAsync(countSupplier)），
+     * 渲染时已经算完则按精确总数输出，否则按 renderLookahead 的规则输出，fetchedRows 的含义同 renderLookahead
+     */
+    public static String renderPendingTotal(PaginationConfig config, long currentPage, int fetchedRows, CompletableFuture<Long> totalEntries) {
+        if (totalEntries.isDone() && !totalEntries.isCompletedExceptionally()) {
+            Long total = totalEntries.getNow(null);
+            if (total != null) {
+                return render(config, currentPage, total);
             }
+        }
+        return renderLookahead(config, currentPage, fetchedRows);
+    }
 
-            if (num_edge_entries < interval[0] && !ellipse_text.equals("")) {
-                panel.append(new HTMLTag(HTMLTag.Tag.SPAN, ellipse_text));
+    /**
+     * 游标（keyset）分页，链接携带 window 中的游标而不是偏移量，link_to 中用 __cursor__ 占位
+     * 只输出上一页、下一页和当前页附近 num_display_entries 个链接，不输出首尾的 num_edge_entries
+     */
+    public static String renderCursor(PaginationConfig config, CursorWindow window) {
+        StringBuilder panel = new StringBuilder();
+        writeInMemory(() -> renderCursor(config, window, panel));
+        return produced(config, panel);
+    }
+
+    public static void renderCursor(PaginationConfig config, CursorWindow window, Appendable out) throws IOException {
+        visitCursor(config, window, new HtmlPanelWriter(config, out));
+    }
+
+    /**
+     * 结构化输出，供 JSON 接口或前端使用，不生成 HTML
+     */
+    public static List<PageItem> model(PaginationConfig config, long currentPage, long totalEntries) {
+        PageItemCollector items = new PageItemCollector(config);
+        writeInMemory(() -> visit(config, currentPage, totalEntries, items));
+        return items.getItems();
+    }
+
+    /**
+     * 以 JSON 数组输出，格式见 JsonPanelWriter
+     */
+    public static void renderJson(PaginationConfig config, long currentPage, long totalEntries, Appendable out) throws IOException {
+        visit(config, currentPage, totalEntries, new JsonPanelWriter(config, out));
+    }
+
+    public static String renderJson(PaginationConfig config, long currentPage, long totalEntries) {
+        StringBuilder json = new StringBuilder();
+        writeInMemory(() -> renderJson(config, currentPage, totalEntries, json));
+        return produced(config, json);
+    }
+
+    /**
+     * 当前页相邻的页码，按升序排列：上一页、下一页以及下一页之后 prefetch_pages 页中存在的页
+     * 服务端可以据此异步预热这些页的查询缓存
+     */
+    public static long[] neighbors(PaginationConfig config, long currentPage, long totalEntries) {
+        long np = reachablePages(config, totalEntries);
+        if (np == 0) {
+            return new long[0];
+        }
+        long current_page = clamp(currentPage, np);
+        long first = current_page > 0 ? current_page - 1 : current_page + 1;
+        long last = Math.min(addSaturated(current_page, 1L + config.getPrefetch_pages()), np - 1);
+        if (first > last) {
+            return new long[0];
+        }
+        long[] pages = new long[(int) (last - first + (current_page > 0 ? 0 : 1))];
+        int n = 0;
+        for (long i = first; i <= last; i++) {
+            if (i != current_page) {
+                pages[n++] = i;
             }
+        }
+        return pages;
+    }
 
+    /**
+     * 输出放在 <head> 中的预取提示：
+     * <link rel="prev" href="..."/> <link rel="next" href="..."/>，
+     * 以及 prefetch_pages 大于0时下一页之后各页的 <link rel="prefetch" href="..."/>，
+     * 下一页已由 rel="next" 给出，不重复输出；link_to 为空时没有可用的地址，不输出任何提示
+     */
+    public static void renderHints(PaginationConfig config, long currentPage, long totalEntries, Appendable out) throws IOException {
+        long np = reachablePages(config, totalEntries);
+        if (np == 0 || config.getLink_to().isEmpty()) {
+            return;
+        }
+        long current_page = clamp(currentPage, np);
+        PanelTemplate template = config.getPanel_template();
+        LinkTemplate link = config.getLink_template();
+        int size = config.getItems_per_page();
+        if (current_page > 0) {
+            link.writeHtml(out, template.prev_hint, current_page - 1, size, null);
+        }
+        if (current_page < np - 1) {
+            link.writeHtml(out, template.next_hint, current_page + 1, size, null);
         }
+        long last = Math.min(addSaturated(current_page, 1L + config.getPrefetch_pages()), np - 1);
+        for (long i = current_page + 2; i <= last; i++) {
+            link.writeHtml(out, template.prefetch_hint, i, size, null);
+        }
+    }
+
+    public static String renderHints(PaginationConfig config, long currentPage, long totalEntries) {
+        StringBuilder hints = new StringBuilder();
+        writeInMemory(() -> renderHints(config, currentPage, totalEntries, hints));
+        return produced(config, hints);
+    }
+
+    /**
+     * 按页码分页，依次回调 visitor
+     */
+    public static void visit(PaginationConfig config, long currentPage, long totalEntries, PanelVisitor visitor) throws IOException {
+        walkObserved(config, currentPage, reachablePages(config, totalEntries), false, null, visitor);
+    }
+
+    /**
+     * 总数未知，只知道至少有 knownEntries 条记录，见 renderOpenEnded
+     */
+    public static void visitOpenEnded(PaginationConfig config, long currentPage, long knownEntries, PanelVisitor visitor) throws IOException {
+        long np = openPages(config, currentPage, knownEntries);
+        // 已经到 max_pages，后面的页不可访问，不再输出表示还有更多的省略号
+        walkObserved(config, currentPage, np, np < config.getMax_pages(), null, visitor);
+    }
 
-        // Generate interval links
-        for (int i = interval[0]; i < interval[1]; i++) {
-            appendItem(i, null, np, panel);
+    /**
+     * 游标分页，见 renderCursor
+     */
+    public static void visitCursor(PaginationConfig config, CursorWindow window, PanelVisitor visitor) throws IOException {
+        walkObserved(config, window.getCurrent_page(), -1, false, window, visitor);
+    }
+
+    // 配置了 observer 时报告耗时；window 不为 null 时按游标分页，np 报告为 -1
+    private static void walkObserved(PaginationConfig config, long currentPage, long np, boolean open, CursorWindow window, PanelVisitor visitor) throws IOException {
+        PaginationObserver observer = config.getObserver();
+        long start = observer == null ? 0 : System.nanoTime();
+        if (window == null) {
+            walk(config, currentPage, np, open, visitor);
+        } else {
+            walkCursor(config, window, visitor);
+        }
+        if (observer != null) {
+            observer.rendered(config, currentPage, np, System.nanoTime() - start);
         }
+    }
 
-        if (interval[1] < np && num_edge_entries > 0) {
-            if (np - num_edge_entries > interval[1] && !ellipse_text.equals("")) {
-                panel.append(new HTMLTag(HTMLTag.Tag.SPAN, ellipse_text));
+    private static void walkCursor(PaginationConfig config, CursorWindow window, PanelVisitor visitor) throws IOException {
+        long current_page = window.getCurrent_page();
+        int num_display_entries = config.getNum_display_entries();
+        int ne_half = -Math.floorDiv(-num_display_entries, 2);
+        int left = Math.max(Math.min(window.beforeCount(), ne_half), 0);
+        int right = Math.max(Math.min(window.afterCount(), num_display_entries - left - 1), 0);
+        boolean ellipse = !config.getEllipse_text().equals("");
+
+        visitor.begin();
+
+        // Generate "Previous"-Link
+        if (!config.getPrev_text().equals("") && (window.beforeCount() > 0 || config.isPrev_show_always())) {
+            if (window.beforeCount() > 0) {
+                visitor.prev(current_page - 1, window.before(1), false);
+            } else {
+                visitor.prev(current_page, null, true);
             }
+        }
 
-            int begin = Math.max(np - num_edge_entries, interval[1]);
-            for (int i = begin; i < np; i++) {
-                appendItem(i, null, np, panel);
+        if (num_display_entries > 0) {
+            if ((window.hasMoreBefore() || window.beforeCount() > left) && ellipse) {
+                visitor.ellipsis();
+            }
+            for (int n = left; n > 0; n--) {
+                visitor.page(current_page - n, window.before(n), false);
             }
+            visitor.page(current_page, null, true);
+            for (int n = 1; n <= right; n++) {
+                visitor.page(current_page + n, window.after(n), false);
+            }
+            if ((window.hasMoreAfter() || window.afterCount() > right) && ellipse) {
+                visitor.ellipsis();
+            }
+        }
+
+        // Generate "Next"-Link
+        if (!config.getNext_text().equals("") && (window.afterCount() > 0 || config.isNext_show_always())) {
+            if (window.afterCount() > 0) {
+                visitor.next(current_page + 1, window.after(1), false);
+            } else {
+                visitor.next(current_page, null, true);
+            }
+        }
+
+        visitor.end();
+    }
 
+    // open 为 true 时总页数未知，np 只是已知的页数
+    private static void walk(PaginationConfig config, long current_page, long np, boolean open, PanelVisitor visitor) throws IOException {
+        long[] interval = getInterval(config, current_page, np);
+        int num_edge_entries = config.getNum_edge_entries();
+        boolean ellipse = !config.getEllipse_text().equals("");
+
+        visitor.begin();
+
+        // Generate "Previous"-Link
+        if (!config.getPrev_text().equals("") && (current_page > 0 || config.isPrev_show_always())) {
+            long page_id = clamp(addSaturated(current_page, -1), np);
+            visitor.prev(page_id, null, page_id == current_page);
+        }
+
+        if (config.getJump_base() > 1) {
+            walkJumps(config, current_page, np, open, interval, visitor);
+        } else {
+            // Generate starting points
+            if (interval[0] > 0 && num_edge_entries > 0) {
+                long end = Math.min(num_edge_entries, interval[0]);
+                for (long i = 0; i < end; i++) {
+                    visitor.page(i, null, i == current_page);
+                }
+
+                if (num_edge_entries < interval[0] && ellipse) {
+                    visitor.ellipsis();
+                }
+
+            }
+
+            // Generate interval links
+            for (long i = interval[0]; i < interval[1]; i++) {
+                visitor.page(i, null, i == current_page);
+            }
+
+            if (open) {
+                // Open-ended: more pages may follow the last known one
+                if (ellipse) {
+                    visitor.ellipsis();
+                }
+            } else if (interval[1] < np && num_edge_entries > 0) {
+                if (np - num_edge_entries > interval[1] && ellipse) {
+                    visitor.ellipsis();
+                }
+
+                long begin = Math.max(np - num_edge_entries, interval[1]);
+                for (long i = begin; i < np; i++) {
+                    visitor.page(i, null, i == current_page);
+                }
+
+            }
         }
 
         // Generate "Next"-Link
-        if (!next_text.equals("") && (current_page < np - 1 || next_show_always)) {
-            appendItem(current_page + 1, new Appendopts(next_text, "next"), np, panel);
+        if (!config.getNext_text().equals("") && (current_page < np - 1 || config.isNext_show_always())) {
+            long page_id = clamp(addSaturated(current_page, 1), np);
+            visitor.next(page_id, null, page_id == current_page);
         }
 
-        return panel.toString();
+        visitor.end();
     }
 
-    // Helper function for generating a single link (or a span tag if it's the current page)
-    private void appendItem(int page_id, Appendopts appendopts, int np, StringBuffer panel) {
-        page_id = page_id < 0 ? 0 : (page_id < np ? page_id : np - 1);
-        if (appendopts == null) {
-            appendopts = new Appendopts();
-            appendopts.text = String.valueOf(page_id + 1);
-            appendopts.classes = "";
+    // 对数跳转窗口：在区间两侧增加距当前页 base、base^2、base^3... 的页码，
+    // 页数很多时也只需少量链接就能跳到很远的页；页码不连续处输出省略号
+    private static void walkJumps(PaginationConfig config, long current_page, long np, boolean open, long[] interval, PanelVisitor visitor) throws IOException {
+        int base = config.getJump_base();
+        int num_edge_entries = config.getNum_edge_entries();
+        long left_edge = Math.min(num_edge_entries, interval[0]);
+        long right_edge = open ? np : Math.max(np - num_edge_entries, interval[1]);
+        boolean ellipse = !config.getEllipse_text().equals("");
+
+        // 距离 base^1 .. base^count
+        long[] distances = new long[64];
+        int count = 0;
+        for (long d = base; d < np; d *= base) {
+            distances[count++] = d;
+            if (d > Long.MAX_VALUE / base) {
+                break;
+            }
         }
 
-        HTMLTag lnk = new HTMLTag(HTMLTag.Tag.SPAN, appendopts.text).addAttribute(HTMLTag.Attribute.CLASS, "current");
-        if (page_id != current_page) {
-            lnk = new HTMLTag(HTMLTag.Tag.A, appendopts.text).addAttribute(HTMLTag.Attribute.HREF, link_to.replace("__id__", String.valueOf(page_id)));
+        long last = -1; // 上一个输出的页码
+        for (long i = 0; i < left_edge; i++) {
+            last = jumpTo(i, last, current_page, ellipse, visitor);
+        }
+        for (int k = count - 1; k >= 0; k--) {
+            long page_id = current_page - distances[k];
+            if (page_id >= left_edge && page_id < interval[0] && page_id > last) {
+                last = jumpTo(page_id, last, current_page, ellipse, visitor);
+            }
+        }
+        for (long i = interval[0]; i < interval[1]; i++) {
+            last = jumpTo(i, last, current_page, ellipse, visitor);
+        }
+        for (int k = 0; k < count; k++) {
+            long page_id = addSaturated(current_page, distances[k]);
+            if (page_id >= interval[1] && page_id < right_edge && page_id > last) {
+                last = jumpTo(page_id, last, current_page, ellipse, visitor);
+            }
+        }
+        for (long i = Math.max(right_edge, last + 1); i < np; i++) {
+            last = jumpTo(i, last, current_page, ellipse, visitor);
         }
 
-        if (!"".equals(appendopts.classes)) {
-            lnk.addAttribute(HTMLTag.Attribute.CLASS, appendopts.classes);
+        if (open && ellipse) {
+            // Open-ended: more pages may follow the last known one
+            visitor.ellipsis();
         }
+    }
 
-        panel.append(lnk);
+    private static long jumpTo(long page_id, long last, long current_page, boolean ellipse, PanelVisitor visitor) throws IOException {
+        if (last >= 0 && page_id > last + 1 && ellipse) {
+            visitor.ellipsis();
+        }
+        visitor.page(page_id, null, page_id == current_page);
+        return page_id;
     }
 
-    static class Appendopts {
-        public String text;
-        public String classes;
+    /**
+     * 写入 StringBuilder、ByteBuffer 等内存中的目标，不会抛出 IOException
+     */
+    interface InMemoryWrite {
+        void write() throws IOException;
+    }
 
-        public Appendopts() {
+    static void writeInMemory(InMemoryWrite write) {
+        try {
+            write.write();
+        } catch (IOException e) {
+            // 内存中的目标不会抛出 IOException
+            throw new IllegalStateException(e);
         }
+    }
 
-        public Appendopts(String text, String classes) {
-            this.text = text;
-            this.classes = classes;
+    // 报告输出的字符数，返回输出的内容
+    private static String produced(PaginationConfig config, StringBuilder out) {
+        if (config.getObserver() != null) {
+            config.getObserver().produced(config, out.length());
+        }
+        return out.toString();
+    }
+
+    // 上一页/下一页的页码限制在 [0, np) 内
+    private static long clamp(long page_id, long np) {
+        return page_id < 0 ? 0 : (page_id < np ? page_id : np - 1);
+    }
+
+    // 逐位输出整数，避免 String.valueOf
+    static void appendNumber(long n, Appendable out) throws IOException {
+        if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(n);
+            return;
+        }
+        if (n < 0) {
+            if (n == Long.MIN_VALUE) {
+                out.append(String.valueOf(n));
+                return;
+            }
+            out.append('-');
+            n = -n;
+        }
+        long div = 1;
+        while (n / div >= 10) {
+            div *= 10;
+        }
+        for (; div > 0; div /= 10) {
+            out.append((char) ('0' + (n / div) % 10));
         }
     }
 
@@ -175,6 +674,9 @@ public class Pagination {
         //p.setCurrent_page(2);
         System.out.println(p.drawLinks());
 
+        PaginationConfig config = PaginationConfig.builder().setItems_per_page(30).setNum_edge_entries(1).build();
+        System.out.println(Pagination.render(config, 2, 1000));
+
     }
 
 }
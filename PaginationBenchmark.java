@@ -0,0 +1,134 @@
+package com.qianmi.app.util;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Pagination / HTMLTag 热点路径的基准测试
+ * 输出每个场景的 ops/s 和每次操作分配的字节数（需要 HotSpot 的 com.sun.management.ThreadMXBean）
+ *
+ * 用法：java com.qianmi.app.util.PaginationBenchmark [预热毫秒] [测量毫秒]
+ *
+ * @author mysoko
+ */
+public class PaginationBenchmark {
+
+    private static final int[] TOTALS = {10, 1000, 100000, 10000000};
+    private static final int[][] WINDOWS = {{10, 0}, {5, 2}, {20, 3}}; // {num_display_entries, num_edge_entries}
+    private static final String SHORT_LINK = "#";
+    private static final String LONG_LINK = "/search/list?keyword=phone&category=1024&brand=88&priceFrom=100&priceTo=5000"
+            + "&sort=price&order=desc&inStock=true&page=__id__&size=__size__";
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile long sink; // 防止 JIT 消除结果
+
+    private final long warmupMillis;
+    private final long measureMillis;
+
+    public PaginationBenchmark(long warmupMillis, long measureMillis) {
+        this.warmupMillis = warmupMillis;
+        this.measureMillis = measureMillis;
+    }
+
+    /**
+     * 单次操作，返回值用于防止死代码消除
+     */
+    public interface Op {
+        long run(int i);
+    }
+
+    /**
+     * 先预热再测量，打印 ops/s 和 bytes/op
+     */
+    public void measure(String name, Op op) {
+        loop(op, warmupMillis);
+
+        long tid = Thread.currentThread().getId();
+        long allocated = THREADS.getThreadAllocatedBytes(tid);
+        long start = System.nanoTime();
+        long ops = loop(op, measureMillis);
+        long elapsed = System.nanoTime() - start;
+        allocated = THREADS.getThreadAllocatedBytes(tid) - allocated;
+
+        System.out.println(String.format("%-60s %14.0f ops/s %10.1f B/op",
+                name, ops * 1e9 / elapsed, (double) allocated / ops));
+    }
+
+    private static long loop(Op op, long millis) {
+        long deadline = System.nanoTime() + millis * 1000000L;
+        long ops = 0;
+        long acc = 0;
+        do {
+            // 每批 1024 次再检查时间，减少 nanoTime 的开销
+            for (int i = 0; i < 1024; i++) {
+                acc += op.run(i);
+            }
+            ops += 1024;
+        } while (System.nanoTime() < deadline);
+        sink += acc;
+        return ops;
+    }
+
+    // 把批内序号散开到整个页码范围，覆盖首页、中间页和末页
+    private static int page(int i, int np) {
+        return (int) ((i * 7919L) % np);
+    }
+
+    private static Pagination pagination(int total, int display, int edge, String link) {
+        Pagination p = new Pagination();
+        p.setMaxentries(total);
+        p.setNum_display_entries(display);
+        p.setNum_edge_entries(edge);
+        p.setLink_to(link);
+        return p;
+    }
+
+    public void run() {
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        StringBuilder reused = new StringBuilder(4096);
+
+        for (String link : new String[]{SHORT_LINK, LONG_LINK}) {
+            String linkName = link.equals(SHORT_LINK) ? "short" : "long";
+            for (int total : TOTALS) {
+                for (int[] window : WINDOWS) {
+                    final Pagination p = pagination(total, window[0], window[1], link);
+                    final int np = p.numPages();
+                    final PaginationConfig config = p.getConfig();
+                    final int entries = total;
+                    String params = String.format("total=%d display=%d edge=%d link=%s", total, window[0], window[1], linkName);
+
+                    measure("drawLinks() " + params, i -> {
+                        p.setCurrent_page(page(i, np));
+                        return p.drawLinks().length();
+                    });
+                    measure("drawLinks(StringBuilder) " + params, i -> {
+                        reused.setLength(0);
+                        Pagination.render(config, page(i, np), entries, reused);
+                        return reused.length();
+                    });
+                    measure("getInterval() " + params, i -> Pagination.getInterval(config, page(i, np), np)[1]);
+                }
+            }
+        }
+
+        measure("HTMLTag.toString()", i -> new HTMLTag(HTMLTag.Tag.A, "下一页")
+                .addAttribute(HTMLTag.Attribute.HREF, LONG_LINK)
+                .addAttribute(HTMLTag.Attribute.CLASS, "next")
+                .toString().length());
+        measure("HTMLTag.addAttribute/removeAttribute", i -> new HTMLTag(HTMLTag.Tag.SPAN, "1")
+                .addAttribute(HTMLTag.Attribute.CLASS, "current")
+                .addAttribute(HTMLTag.Attribute.CLASS, "prev")
+                .addAttribute(HTMLTag.Attribute.CLASS, "current")
+                .removeAttribute(HTMLTag.Attribute.CLASS, "prev")
+                .removeAttribute(HTMLTag.Attribute.CLASS, "current")
+                .hashCode());
+    }
+
+    public static void main(String[] args) {
+        long warmup = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        long measure = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        new PaginationBenchmark(warmup, measure).run();
+    }
+
+}
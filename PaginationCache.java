@@ -0,0 +1,165 @@
+package com.qianmi.app.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分页 HTML 缓存
+ * 同一配置下 drawLinks 的结果只取决于当前页和总页数，
+ * 以 (配置实例, 当前页, 总页数) 为 key 缓存，按 LRU 淘汰，可并发使用
+ *
+ * @author mysoko
+ */
+public final class PaginationCache {
+
+    private final int maxEntries;   // 最多缓存条数
+    private final long maxBytes;    // 最多占用字节数（按 char 两个字节估算）
+
+    private final LinkedHashMap<Key, String> panels = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;             // 当前占用字节数，受 panels 锁保护
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public PaginationCache(int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE);
+    }
+
+    public PaginationCache(int maxEntries, long maxBytes) {
+        if (maxEntries <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("maxEntries and maxBytes must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 同 Pagination.render，命中时直接返回缓存的结果
+     */
+    public String render(PaginationConfig config, long currentPage, long totalEntries) {
+        Key key = new Key(config, currentPage, Pagination.reachablePages(config, totalEntries));
+        String panel;
+        synchronized (panels) {
+            panel = panels.get(key);
+        }
+        PaginationObserver observer = config.getObserver();
+        if (panel != null) {
+            hits.incrementAndGet();
+            if (observer != null) {
+                observer.cacheHit(config);
+            }
+            return panel;
+        }
+
+        misses.incrementAndGet();
+        if (observer != null) {
+            observer.cacheMiss(config);
+        }
+        panel = Pagination.render(config, currentPage, totalEntries);
+        put(key, panel);
+        return panel;
+    }
+
+    private void put(Key key, String panel) {
+        long size = sizeOf(panel);
+        if (size > maxBytes) {
+            return;
+        }
+        synchronized (panels) {
+            String old = panels.put(key, panel);
+            bytes += size - (old == null ? 0 : sizeOf(old));
+
+            Iterator<String> eldest = panels.values().iterator();
+            while (panels.size() > maxEntries || bytes > maxBytes) {
+                bytes -= sizeOf(eldest.next());
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static long sizeOf(String panel) {
+        return 2L * panel.length();
+    }
+
+    public void clear() {
+        synchronized (panels) {
+            panels.clear();
+            bytes = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (panels) {
+            return panels.size();
+        }
+    }
+
+    public long bytes() {
+        synchronized (panels) {
+            return bytes;
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return "PaginationCache{size=" + size() + ", bytes=" + bytes()
+                + ", hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions() + "}";
+    }
+
+    /**
+     * 配置按实例区分，不比较内容
+     */
+    private static final class Key {
+
+        private final PaginationConfig config;
+        private final long current_page;
+        private final long np;
+
+        Key(PaginationConfig config, long current_page, long np) {
+            this.config = config;
+            this.current_page = current_page;
+            this.np = np;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return config == other.config && current_page == other.current_page && np == other.np;
+        }
+
+        @Override
+        public int hashCode() {
+            long h = (System.identityHashCode(config) * 31L + current_page) * 31L + np;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    public static void main(String[] args) {
+        PaginationConfig config = PaginationConfig.builder().setNum_edge_entries(2).build();
+        PaginationCache cache = new PaginationCache(2);
+        for (int i = 0; i < 10; i++) {
+            cache.render(config, i % 3, 1000);
+        }
+        System.out.println(cache.render(config, 0, 1000));
+        System.out.println(cache);
+    }
+
+}
@@ -0,0 +1,236 @@
+package com.qianmi.app.util;
+
+/**
+ * 分页配置
+ * 不可变，构建一次后可作为单例被多个请求线程并发共享，
+ * 每次请求只需调用 Pagination.render(config, currentPage, totalEntries)
+ *
+ * @author mysoko
+ */
+public final class PaginationConfig {
+
+    private final int items_per_page;         // 每页显示的实体数量
+    private final int num_display_entries;    // 显示分页链接数
+    private final int num_edge_entries;       // 开始和结尾几个数字
+    private final String link_to;             // 链接地址，占位符见 LinkTemplate
+    private final String prev_text;           // 上一页，显示的文字
+    private final String next_text;           // 下一页，显示的文字
+    private final String ellipse_text;        // 省略号，显示的文字
+    private final boolean prev_show_always;   // 上一页，是否要显示
+    private final boolean next_show_always;   // 下一页，是否要显示
+    private final long max_pages;             // 最多可访问的页数，超出的页不输出链接
+    private final int jump_base;              // 对数跳转窗口的底数，如10时输出距当前页 10、100、1000... 的页码，0为不启用
+    private final int prefetch_pages;         // 下一页之后预取的页数，输出 rel="prefetch"，0为不输出
+    private final PaginationObserver observer; // 监控回调，可为空
+
+    private final LinkTemplate link_template; // 预编译的 link_to
+    private final String prev_html;           // 转义后的文字，只在构建时转义一次
+    private final String next_html;
+    private final String ellipse_html;
+    private final PanelTemplate panel_template; // 编译后的面板片段
+
+    private PaginationConfig(Builder builder) {
+        this.items_per_page = builder.items_per_page;
+        this.num_display_entries = builder.num_display_entries;
+        this.num_edge_entries = builder.num_edge_entries;
+        this.link_to = builder.link_to;
+        this.prev_text = builder.prev_text;
+        this.next_text = builder.next_text;
+        this.ellipse_text = builder.ellipse_text;
+        this.prev_show_always = builder.prev_show_always;
+        this.next_show_always = builder.next_show_always;
+        this.max_pages = builder.max_pages;
+        this.jump_base = builder.jump_base;
+        this.prefetch_pages = builder.prefetch_pages;
+        this.observer = builder.observer;
+        this.link_template = LinkTemplate.compile(builder.link_to);
+        this.prev_html = HtmlEscaper.escapeLabel(prev_text);
+        this.next_html = HtmlEscaper.escapeLabel(next_text);
+        this.ellipse_html = HtmlEscaper.escapeLabel(ellipse_text);
+        this.panel_template = new PanelTemplate(link_template, prev_html, next_html, ellipse_html);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getItems_per_page() {
+        return items_per_page;
+    }
+
+    public int getNum_display_entries() {
+        return num_display_entries;
+    }
+
+    public int getNum_edge_entries() {
+        return num_edge_entries;
+    }
+
+    public String getLink_to() {
+        return link_to;
+    }
+
+    public long getMax_pages() {
+        return max_pages;
+    }
+
+    public int getJump_base() {
+        return jump_base;
+    }
+
+    public int getPrefetch_pages() {
+        return prefetch_pages;
+    }
+
+    public PaginationObserver getObserver() {
+        return observer;
+    }
+
+    public LinkTemplate getLink_template() {
+        return link_template;
+    }
+
+    public String getPrev_text() {
+        return prev_text;
+    }
+
+    public String getNext_text() {
+        return next_text;
+    }
+
+    public String getEllipse_text() {
+        return ellipse_text;
+    }
+
+    public boolean isPrev_show_always() {
+        return prev_show_always;
+    }
+
+    public boolean isNext_show_always() {
+        return next_show_always;
+    }
+
+    String getPrev_html() {
+        return prev_html;
+    }
+
+    String getNext_html() {
+        return next_html;
+    }
+
+    String getEllipse_html() {
+        return ellipse_html;
+    }
+
+    PanelTemplate getPanel_template() {
+        return panel_template;
+    }
+
+    /**
+     * 构建器，默认值与 Pagination 一致
+     */
+    public static final class Builder {
+
+        private int items_per_page = 10;
+        private int num_display_entries = 10;
+        private int num_edge_entries = 0;
+        private String link_to = "#";
+        private String prev_text = "Prev";
+        private String next_text = "Next";
+        private String ellipse_text = "...";
+        private boolean prev_show_always = true;
+        private boolean next_show_always = true;
+        private long max_pages = Long.MAX_VALUE;
+        private int jump_base = 0;
+        private int prefetch_pages = 0;
+        private PaginationObserver observer;
+
+        Builder() {
+        }
+
+        public Builder setItems_per_page(int items_per_page) {
+            this.items_per_page = items_per_page;
+            return this;
+        }
+
+        public Builder setNum_display_entries(int num_display_entries) {
+            this.num_display_entries = num_display_entries;
+            return this;
+        }
+
+        public Builder setNum_edge_entries(int num_edge_entries) {
+            this.num_edge_entries = num_edge_entries;
+            return this;
+        }
+
+        public Builder setLink_to(String link_to) {
+            this.link_to = link_to;
+            return this;
+        }
+
+        public Builder setPrev_text(String prev_text) {
+            this.prev_text = prev_text;
+            return this;
+        }
+
+        public Builder setNext_text(String next_text) {
+            this.next_text = next_text;
+            return this;
+        }
+
+        public Builder setEllipse_text(String ellipse_text) {
+            this.ellipse_text = ellipse_text;
+            return this;
+        }
+
+        public Builder setPrev_show_always(boolean prev_show_always) {
+            this.prev_show_always = prev_show_always;
+            return this;
+        }
+
+        public Builder setNext_show_always(boolean next_show_always) {
+            this.next_show_always = next_show_always;
+            return this;
+        }
+
+        public Builder setMax_pages(long max_pages) {
+            this.max_pages = max_pages;
+            return this;
+        }
+
+        public Builder setJump_base(int jump_base) {
+            this.jump_base = jump_base;
+            return this;
+        }
+
+        public Builder setPrefetch_pages(int prefetch_pages) {
+            this.prefetch_pages = prefetch_pages;
+            return this;
+        }
+
+        public Builder setObserver(PaginationObserver observer) {
+            this.observer = observer;
+            return this;
+        }
+
+        public PaginationConfig build() {
+            if (items_per_page <= 0) {
+                throw new IllegalArgumentException("items_per_page must be positive: " + items_per_page);
+            }
+            if (max_pages <= 0) {
+                throw new IllegalArgumentException("max_pages must be positive: " + max_pages);
+            }
+            if (jump_base != 0 && jump_base < 2) {
+                throw new IllegalArgumentException("jump_base must be 0 or at least 2: " + jump_base);
+            }
+            if (prefetch_pages < 0) {
+                throw new IllegalArgumentException("prefetch_pages must not be negative: " + prefetch_pages);
+            }
+            if (link_to == null || prev_text == null || next_text == null || ellipse_text == null) {
+                throw new NullPointerException();
+            }
+            return new PaginationConfig(this);
+        }
+    }
+
+}
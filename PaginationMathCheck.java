@@ -0,0 +1,195 @@
+package com.qianmi.app.util;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * 页数和区间计算的随机对比测试
+ * numPages(PaginationConfig, long) 和 getInterval(PaginationConfig, long, long) 与两种参考实现比较：
+ * 1. 原来 int/double 的实现（Math.ceil），在 int 范围内且原实现不溢出时结果必须完全相同
+ * 2. 同一公式的 BigInteger 精确计算，覆盖 Integer.MAX_VALUE 附近、超过 2^31 直到 Long.MAX_VALUE 的总数；
+ *    超出 long 范围的结果按饱和运算（见 Pagination.addSaturated）限制在 long 范围内
+ *
+ * 用法：java com.qianmi.app.util.PaginationMathCheck [次数] [随机种子]
+ * 有不一致时打印前几个并以状态码1退出
+ *
+ * @author mysoko
+ */
+public class PaginationMathCheck {
+
+    private static final int MAX_REPORTED = 10;
+    private static final BigInteger TWO = BigInteger.valueOf(2);
+
+    private final Random random;
+    private int failures;
+    private long intCompared; // 与原 int/double 实现比较过的次数
+
+    public PaginationMathCheck(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public int run(long iterations) {
+        for (long n = 0; n < iterations; n++) {
+            int items_per_page = itemsPerPage();
+            int num_display_entries = displayEntries();
+            long total = total();
+            PaginationConfig config = PaginationConfig.builder()
+                    .setItems_per_page(items_per_page)
+                    .setNum_display_entries(num_display_entries)
+                    .build();
+
+            long np = Pagination.numPages(config, total);
+            BigInteger exactNp = exactNumPages(items_per_page, total);
+            if (!exactNp.equals(BigInteger.valueOf(np))) {
+                report("numPages items_per_page=" + items_per_page + " total=" + total, exactNp, np);
+                continue;
+            }
+
+            long current_page = currentPage(np);
+            long[] interval = Pagination.getInterval(config, current_page, np);
+            BigInteger[] exact = exactInterval(num_display_entries, current_page, np);
+            if (!exact[0].equals(BigInteger.valueOf(interval[0])) || !exact[1].equals(BigInteger.valueOf(interval[1]))) {
+                report("getInterval num_display_entries=" + num_display_entries + " current_page=" + current_page + " np=" + np,
+                        exact[0] + "," + exact[1], interval[0] + "," + interval[1]);
+            }
+
+            if (total <= Integer.MAX_VALUE && current_page >= Integer.MIN_VALUE && current_page <= Integer.MAX_VALUE) {
+                compareWithInt(items_per_page, num_display_entries, (int) total, (int) current_page, np, interval);
+            }
+        }
+        System.out.println(String.format("%d checks, %d compared with int/double, %d failures",
+                iterations, intCompared, failures));
+        return failures;
+    }
+
+    // 原实现：maxentries 为 Integer，负数按1条处理（见 setMaxentries）
+    private void compareWithInt(int items_per_page, int num_display_entries, int total, int current_page, long np, long[] interval) {
+        int maxentries = total < 0 ? 1 : total;
+        int oldNp = (int) Math.ceil((double) maxentries / (double) items_per_page);
+        if (oldNp != np) {
+            report("int numPages items_per_page=" + items_per_page + " total=" + total, oldNp, np);
+            return;
+        }
+        int ne_half = (int) Math.ceil((double) num_display_entries / 2d);
+        // 原实现在 int 溢出时结果错误，只比较不溢出的情况
+        long lower = (long) current_page - ne_half;
+        long upper = (long) current_page + ne_half;
+        long upper_limit = (long) oldNp - num_display_entries;
+        if (lower != (int) lower || upper != (int) upper || upper_limit != (int) upper_limit) {
+            return;
+        }
+        int start = current_page > ne_half ? Math.max(Math.min(current_page - ne_half, oldNp - num_display_entries), 0) : 0;
+        int end = current_page > ne_half ? Math.min(current_page + ne_half, oldNp) : Math.min(num_display_entries, oldNp);
+        intCompared++;
+        if (start != interval[0] || end != interval[1]) {
+            report("int getInterval num_display_entries=" + num_display_entries + " current_page=" + current_page + " np=" + np,
+                    start + "," + end, interval[0] + "," + interval[1]);
+        }
+    }
+
+    private static BigInteger exactNumPages(int items_per_page, long total) {
+        BigInteger maxentries = BigInteger.valueOf(total < 0 ? 1 : total);
+        BigInteger[] qr = maxentries.divideAndRemainder(BigInteger.valueOf(items_per_page));
+        return qr[1].signum() == 0 ? qr[0] : qr[0].add(BigInteger.ONE);
+    }
+
+    private static BigInteger[] exactInterval(int num_display_entries, long current_page, long np) {
+        BigInteger nde = BigInteger.valueOf(num_display_entries);
+        BigInteger cur = BigInteger.valueOf(current_page);
+        BigInteger pages = BigInteger.valueOf(np);
+        BigInteger[] qr = nde.divideAndRemainder(TWO);
+        BigInteger ne_half = qr[1].signum() > 0 ? qr[0].add(BigInteger.ONE) : qr[0]; // 向上取整
+        if (cur.compareTo(ne_half) > 0) {
+            BigInteger start = cur.subtract(ne_half).min(pages.subtract(nde)).max(BigInteger.ZERO);
+            BigInteger end = cur.add(ne_half).min(pages);
+            return new BigInteger[]{saturate(start), saturate(end)};
+        }
+        return new BigInteger[]{BigInteger.ZERO, nde.min(pages)};
+    }
+
+    private static BigInteger saturate(BigInteger n) {
+        return n.min(BigInteger.valueOf(Long.MAX_VALUE)).max(BigInteger.valueOf(Long.MIN_VALUE));
+    }
+
+    private int itemsPerPage() {
+        switch (random.nextInt(4)) {
+            case 0:
+                return 1;
+            case 1:
+                return 1 + random.nextInt(100);
+            case 2:
+                return Integer.MAX_VALUE - random.nextInt(3);
+            default:
+                return 1 + random.nextInt(Integer.MAX_VALUE);
+        }
+    }
+
+    private int displayEntries() {
+        switch (random.nextInt(4)) {
+            case 0:
+                return random.nextInt(30);
+            case 1:
+                return -random.nextInt(5);
+            case 2:
+                return Integer.MAX_VALUE - random.nextInt(3);
+            default:
+                return random.nextInt();
+        }
+    }
+
+    // 覆盖 0、负数、Integer.MAX_VALUE 附近、超过 2^31 和 Long.MAX_VALUE 附近
+    private long total() {
+        switch (random.nextInt(7)) {
+            case 0:
+                return random.nextInt(1000);
+            case 1:
+                return -1 - random.nextInt(3);
+            case 2:
+                return (long) Integer.MAX_VALUE - 2 + random.nextInt(5);
+            case 3:
+                return random.nextInt(Integer.MAX_VALUE);
+            case 4:
+                return (1L << 31) + (random.nextLong() & 0xFFFFFFFFFFL);
+            case 5:
+                return Long.MAX_VALUE - random.nextInt(3);
+            default:
+                return random.nextLong() & Long.MAX_VALUE;
+        }
+    }
+
+    // 覆盖首尾、越界、负数和 Long 的极值
+    private long currentPage(long np) {
+        switch (random.nextInt(7)) {
+            case 0:
+                return random.nextInt(5);
+            case 1:
+                return np - 1 - random.nextInt(5);
+            case 2:
+                return np + random.nextInt(3);
+            case 3:
+                return -1 - random.nextInt(3);
+            case 4:
+                return Long.MAX_VALUE - random.nextInt(3);
+            case 5:
+                return Long.MIN_VALUE + random.nextInt(3);
+            default:
+                return np <= 0 ? 0 : (random.nextLong() & Long.MAX_VALUE) % np;
+        }
+    }
+
+    private void report(String what, Object expected, Object actual) {
+        if (++failures <= MAX_REPORTED) {
+            System.out.println("MISMATCH " + what + "\n  expected: " + expected + "\n  actual:   " + actual);
+        }
+    }
+
+    public static void main(String[] args) {
+        long iterations = args.length > 0 ? Long.parseLong(args[0]) : 1000000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        System.out.println("seed=" + seed);
+        if (new PaginationMathCheck(seed).run(iterations) > 0) {
+            System.exit(1);
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.qianmi.app.util;
+
+/**
+ * 分页渲染的监控回调，通过 PaginationConfig.Builder.setObserver 设置
+ * 未设置时渲染路径上只有一次判空，不产生任何开销
+ *
+ * 不依赖任何监控库，可自行转发到 Micrometer 等，如：
+ * <pre>
+ * public void rendered(PaginationConfig config, long current_page, long np, long nanos) {
+ *     timer.record(nanos, TimeUnit.NANOSECONDS);
+ *     depth.record(current_page);
+ * }
+ * </pre>
+ * 内置实现见 RenderStats（计数和直方图）和 JfrPaginationObserver（JFR 事件）
+ *
+ * 回调在渲染线程中同步执行，实现需要线程安全且尽量轻量
+ *
+ * @author mysoko
+ */
+public interface PaginationObserver {
+
+    /**
+     * 一次渲染结束
+     * @param current_page 当前页数
+     * @param np 总页数，总数未知时为已知页数，游标分页时为 -1
+     * @param nanos 耗时
+     */
+    void rendered(PaginationConfig config, long current_page, long np, long nanos);
+
+    /**
+     * 输出长度已知时回调，HTML/JSON 字符串为字符数，ByteBuffer 为字节数
+     * 返回 String 或写入 StringBuilder、ByteBuffer 的渲染方法（含 PanelBatch）都会回调；
+     * 写入 Appendable、OutputStream 或 PanelVisitor 时长度未知，不回调，PaginationCache 命中时也不回调
+     */
+    default void produced(PaginationConfig config, long length) {
+    }
+
+    /**
+     * PaginationCache 命中
+     */
+    default void cacheHit(PaginationConfig config) {
+    }
+
+    /**
+     * PaginationCache 未命中
+     */
+    default void cacheMiss(PaginationConfig config) {
+    }
+
+}
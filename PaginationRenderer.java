@@ -0,0 +1,54 @@
+package com.qianmi.app.util;
+
+/**
+ * 分页面板的输出格式
+ * 每次渲染调用一次 open，返回的 PanelVisitor 直接接收 Pagination 计算区间时产生的事件，
+ * 不需要对生成的 HTML 再做处理
+ *
+ * 内置：
+ * HTML       drawLinks() 的 a/span 标签
+ * BOOTSTRAP  Bootstrap 的 ul.pagination &gt; li.page-item
+ * TEXT       纯文本，如 Prev 1 2 [3] 4 ... 20 Next
+ * JSON       见 JsonPanelWriter
+ * 自定义格式见 PanelFormat，模板只在构建时解析一次
+ *
+ * 实现需要线程安全，可作为单例共享；open 返回的 PanelVisitor 只用于一次渲染
+ *
+ * @author mysoko
+ */
+public interface PaginationRenderer {
+
+    PaginationRenderer HTML = HtmlPanelWriter::new;
+
+    PaginationRenderer BOOTSTRAP = PanelFormat.builder()
+            .setBegin("<ul class=\"pagination\">")
+            .setEnd("</ul>")
+            .setPage("<li class=\"page-item\"><a class=\"page-link\" href=\"{href}\">{page}</a></li>")
+            .setCurrent("<li class=\"page-item active\" aria-current=\"page\"><span class=\"page-link\">{page}</span></li>")
+            .setPrev("<li class=\"page-item\"><a class=\"page-link\" href=\"{href}\">{text}</a></li>")
+            .setCurrent_prev("<li class=\"page-item disabled\"><span class=\"page-link\">{text}</span></li>")
+            .setNext("<li class=\"page-item\"><a class=\"page-link\" href=\"{href}\">{text}</a></li>")
+            .setCurrent_next("<li class=\"page-item disabled\"><span class=\"page-link\">{text}</span></li>")
+            .setEllipsis("<li class=\"page-item disabled\"><span class=\"page-link\">{text}</span></li>")
+            .build();
+
+    PaginationRenderer TEXT = PanelFormat.builder()
+            .setHtml(false)
+            .setSeparator(" ")
+            .setPage("{page}")
+            .setCurrent("[{page}]")
+            .setPrev("{text}")
+            .setCurrent_prev("")
+            .setNext("{text}")
+            .setCurrent_next("")
+            .setEllipsis("{text}")
+            .build();
+
+    PaginationRenderer JSON = JsonPanelWriter::new;
+
+    /**
+     * 开始一次渲染，输出到 out
+     */
+    PanelVisitor open(PaginationConfig config, Appendable out);
+
+}
@@ -0,0 +1,902 @@
+package com.qianmi.app.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多线程渲染的正确性测试
+ * 随机生成 num_edge_entries、num_display_entries、总数、当前页和 link_to 等参数，先在单线程中按原始 drawLinks() 的算法
+ * 得到面板的各项，再手工拼出 HTML、Bootstrap 和 JSON 格式的参考输出；
+ * PageItem 模型、纯文本和自定义 PanelFormat 格式、max_pages 限制、预取提示和相邻页也由面板的各项独立生成；
+ * 跳转窗口、游标分页和总数未知时的下一页链接同样由独立的参考实现生成。
+ * 然后由多个线程共享配置、PaginationCache、CountCache、AsyncPagination 等，
+ * 通过各个渲染入口反复渲染并与参考输出比较
+ *
+ * 用法：java com.qianmi.app.util.PaginationStress [线程数] [运行毫秒] [随机种子]
+ * 有不一致时打印前几个并以状态码1退出
+ *
+ * @author mysoko
+ */
+public class PaginationStress {
+
+    private static final String[] LINKS = {"#", "", "?page=__id__", "/list?keyword=a&amp;b=<c>&page=__id__&again=__id__",
+            "javascript:go(__id__)", "/list?p=__page__&size=__size__&offset=__offset__", "/list?after=__cursor__&p=__page__"};
+    private static final String[] PREV_TEXTS = {"Prev", "上一页", "&laquo;", "<", ""};
+    private static final String[] NEXT_TEXTS = {"Next", "下一页", "&raquo;", "'>'", ""};
+    private static final String[] ELLIPSE_TEXTS = {"...", "…", ""};
+    private static final int MAX_REPORTED = 10;
+    private static final int PATHS = 19; // Worker.check 中的渲染入口数
+
+    // 用到所有占位符的自定义格式，当前的下一页不输出
+    private static final PaginationRenderer CUSTOM = PanelFormat.builder()
+            .setBegin("<nav>")
+            .setEnd("</nav>")
+            .setSeparator("|")
+            .setPage("<a href=\"{href}\" data-id=\"{id}\">{page}</a>")
+            .setCurrent("<b data-id=\"{id}\">{text}</b>")
+            .setPrev("<a rel=\"prev\" href=\"{href}\">{text}</a>")
+            .setCurrent_prev("<i>{text}</i>")
+            .setNext("<a rel=\"next\" href=\"{href}\">{text}</a>")
+            .setCurrent_next("")
+            .setEllipsis("<s>{text}</s>")
+            .build();
+
+    private final int threads;
+    private final long millis;
+    private final Case[] cases;
+
+    private final PaginationCache cache = new PaginationCache(64, 64 * 1024); // 容量小，保证有淘汰
+    private final AtomicLong renders = new AtomicLong();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    public PaginationStress(int threads, long millis, long seed, int caseCount) {
+        this.threads = threads;
+        this.millis = millis;
+        Random random = new Random(seed);
+        this.cases = new Case[caseCount];
+        for (int i = 0; i < caseCount; i++) {
+            cases[i] = new Case(random);
+        }
+    }
+
+    /**
+     * 面板中的一项，参考实现先生成各项，再分别按 HTML、Bootstrap、JSON 格式手工输出
+     */
+    private static final class Item {
+
+        static final int PREV = 0;
+        static final int PAGE = 1;
+        static final int ELLIPSIS = 2;
+        static final int NEXT = 3;
+
+        final int type;
+        final long page_id;
+        final String cursor;
+        final boolean current;
+
+        Item(int type, long page_id, String cursor, boolean current) {
+            this.type = type;
+            this.page_id = page_id;
+            this.cursor = cursor;
+            this.current = current;
+        }
+    }
+
+    /**
+     * 一组随机参数，配置在所有线程间共享，参考输出在单线程中生成
+     */
+    private static final class Case {
+
+        final int items_per_page;
+        final int num_display_entries;
+        final int num_edge_entries;
+        final String link_to;
+        final String prev_text;
+        final String next_text;
+        final String ellipse_text;
+        final boolean prev_show_always;
+        final boolean next_show_always;
+        final int maxentries;
+        final int current_page;
+        final int jump_base;
+        final int max_pages;
+        final int prefetch_pages;
+
+        final PaginationConfig config;
+        final PaginationConfig jump_config;
+        final PaginationConfig capped_config; // 设置了 max_pages 和 prefetch_pages
+        final CursorWindow window;
+
+        final String expected;
+        final String expected_bootstrap;
+        final String expected_json;
+        final String expected_model;
+        final String expected_text;
+        final String expected_custom;
+        final String expected_capped;     // resolvePage 的结果和该页的面板
+        final String expected_hints;
+        final String expected_neighbors;
+        final String expected_jump;
+        final String expected_cursor;
+        final String expected_open_next; // 总数未知且当前页是已知的最后一页时，面板以指向下一页的链接结尾
+
+        Case(Random random) {
+            items_per_page = 1 + random.nextInt(random.nextBoolean() ? 10 : 100);
+            num_display_entries = random.nextInt(random.nextBoolean() ? 6 : 30);
+            num_edge_entries = random.nextInt(random.nextBoolean() ? 3 : 8);
+            link_to = LINKS[random.nextInt(LINKS.length)];
+            prev_text = PREV_TEXTS[random.nextInt(PREV_TEXTS.length)];
+            next_text = NEXT_TEXTS[random.nextInt(NEXT_TEXTS.length)];
+            ellipse_text = ELLIPSE_TEXTS[random.nextInt(ELLIPSE_TEXTS.length)];
+            prev_show_always = random.nextInt(4) != 0;
+            next_show_always = random.nextInt(4) != 0;
+            jump_base = 2 + random.nextInt(14);
+            prefetch_pages = random.nextInt(4);
+            // 总数覆盖 0、不足一页、整页边界和很大的值
+            switch (random.nextInt(4)) {
+                case 0:
+                    maxentries = random.nextInt(3 * items_per_page);
+                    break;
+                case 1:
+                    maxentries = items_per_page * random.nextInt(50);
+                    break;
+                case 2:
+                    maxentries = random.nextInt(5000);
+                    break;
+                default:
+                    maxentries = random.nextInt(100000000);
+                    break;
+            }
+            int np = (int) Math.ceil((double) maxentries / (double) items_per_page);
+            // 当前页偏向首尾附近
+            int r = random.nextInt(4);
+            if (np == 0) {
+                current_page = 0;
+            } else if (r == 0) {
+                current_page = Math.min(np - 1, random.nextInt(num_edge_entries + num_display_entries + 2));
+            } else if (r == 1) {
+                current_page = Math.max(0, np - 1 - random.nextInt(num_edge_entries + num_display_entries + 2));
+            } else {
+                current_page = random.nextInt(np);
+            }
+            // 一半不限制，一半在 np 附近，当前页可能超出限制
+            max_pages = random.nextBoolean() ? Integer.MAX_VALUE : 1 + random.nextInt(np + 3);
+            int capped = Math.min(np, max_pages);
+            int resolved = capped == 0 ? 0 : Math.min(current_page, capped - 1);
+            window = new CursorWindow(current_page,
+                    current_page > 0 && random.nextInt(4) != 0 ? new String[]{"b&<" + current_page} : null,
+                    random.nextInt(4) != 0 ? new String[]{"a\"" + current_page} : null,
+                    false, false);
+
+            PaginationConfig.Builder builder = PaginationConfig.builder()
+                    .setItems_per_page(items_per_page)
+                    .setNum_display_entries(num_display_entries)
+                    .setNum_edge_entries(num_edge_entries)
+                    .setLink_to(link_to)
+                    .setPrev_text(prev_text)
+                    .setNext_text(next_text)
+                    .setEllipse_text(ellipse_text)
+                    .setPrev_show_always(prev_show_always)
+                    .setNext_show_always(next_show_always);
+            config = builder.build();
+            jump_config = builder.setJump_base(jump_base).build();
+            capped_config = builder.setJump_base(0).setMax_pages(max_pages).setPrefetch_pages(prefetch_pages).build();
+
+            List<Item> items = referenceItems(np, current_page);
+            expected = html(items);
+            expected_bootstrap = bootstrap(items);
+            expected_json = json(items);
+            expected_model = model(modelItems(items));
+            expected_text = text(items);
+            expected_custom = custom(items);
+            expected_capped = resolved + ":" + html(referenceItems(capped, resolved));
+            expected_hints = hints(capped, resolved);
+            expected_neighbors = neighbors(capped, resolved).toString();
+            expected_jump = html(jumpItems(np));
+            expected_cursor = html(cursorItems());
+            expected_open_next = next_text.equals("") ? "" : html(Collections.singletonList(new Item(Item.NEXT, current_page + 1, null, false)));
+        }
+
+        Pagination pagination(Pagination p) {
+            p.setItems_per_page(items_per_page);
+            p.setNum_display_entries(num_display_entries);
+            p.setNum_edge_entries(num_edge_entries);
+            p.setLink_to(link_to);
+            p.setPrev_text(prev_text);
+            p.setNext_text(next_text);
+            p.setEllipse_text(ellipse_text);
+            p.setPrev_show_always(prev_show_always);
+            p.setNext_show_always(next_show_always);
+            p.setMaxentries(maxentries);
+            p.setCurrent_page(current_page);
+            return p;
+        }
+
+        // 原始 drawLinks() 的算法
+        private List<Item> referenceItems(int np, int current_page) {
+            int ne_half = (int) Math.ceil((double) num_display_entries / 2d);
+            int upper_limit = np - num_display_entries;
+            int start = current_page > ne_half ? Math.max(Math.min(current_page - ne_half, upper_limit), 0) : 0;
+            int end = current_page > ne_half ? Math.min(current_page + ne_half, np) : Math.min(num_display_entries, np);
+
+            List<Item> items = new ArrayList<>();
+            if (!prev_text.equals("") && (current_page > 0 || prev_show_always)) {
+                items.add(item(Item.PREV, current_page - 1, np, current_page));
+            }
+            if (start > 0 && num_edge_entries > 0) {
+                int edge = Math.min(num_edge_entries, start);
+                for (int i = 0; i < edge; i++) {
+                    items.add(item(Item.PAGE, i, np, current_page));
+                }
+                if (num_edge_entries < start && !ellipse_text.equals("")) {
+                    items.add(new Item(Item.ELLIPSIS, -1, null, false));
+                }
+            }
+            for (int i = start; i < end; i++) {
+                items.add(item(Item.PAGE, i, np, current_page));
+            }
+            if (end < np && num_edge_entries > 0) {
+                if (np - num_edge_entries > end && !ellipse_text.equals("")) {
+                    items.add(new Item(Item.ELLIPSIS, -1, null, false));
+                }
+                for (int i = Math.max(np - num_edge_entries, end); i < np; i++) {
+                    items.add(item(Item.PAGE, i, np, current_page));
+                }
+            }
+            if (!next_text.equals("") && (current_page < np - 1 || next_show_always)) {
+                items.add(item(Item.NEXT, current_page + 1, np, current_page));
+            }
+            return items;
+        }
+
+        private Item item(int type, int page_id, int np, int current_page) {
+            page_id = page_id < 0 ? 0 : (page_id < np ? page_id : np - 1);
+            return new Item(type, page_id, null, page_id == current_page);
+        }
+
+        // 对数跳转窗口：首尾、区间和 current_page ± jump_base^k 的并集，不连续处为省略号
+        private List<Item> jumpItems(int np) {
+            List<Item> standard = referenceItems(np, current_page);
+            TreeSet<Long> pages = new TreeSet<>();
+            for (Item item : standard) {
+                if (item.type == Item.PAGE) {
+                    pages.add(item.page_id);
+                }
+            }
+            for (long d = jump_base; d < np; d *= jump_base) {
+                if (current_page - d >= 0) {
+                    pages.add(current_page - d);
+                }
+                if (current_page + d < np) {
+                    pages.add(current_page + d);
+                }
+            }
+            List<Item> items = new ArrayList<>();
+            if (!standard.isEmpty() && standard.get(0).type == Item.PREV) {
+                items.add(standard.get(0));
+            }
+            long last = -1;
+            for (long page_id : pages) {
+                if (last >= 0 && page_id > last + 1 && !ellipse_text.equals("")) {
+                    items.add(new Item(Item.ELLIPSIS, -1, null, false));
+                }
+                items.add(new Item(Item.PAGE, page_id, null, page_id == current_page));
+                last = page_id;
+            }
+            if (!standard.isEmpty() && standard.get(standard.size() - 1).type == Item.NEXT) {
+                items.add(standard.get(standard.size() - 1));
+            }
+            return items;
+        }
+
+        // 只知道上一页、下一页游标的窗口
+        private List<Item> cursorItems() {
+            boolean before = window.beforeCount() > 0;
+            boolean after = window.afterCount() > 0;
+            List<Item> items = new ArrayList<>();
+            if (!prev_text.equals("") && (before || prev_show_always)) {
+                items.add(before ? new Item(Item.PREV, current_page - 1, window.before(1), false)
+                        : new Item(Item.PREV, current_page, null, true));
+            }
+            if (num_display_entries > 0) {
+                if (before) {
+                    items.add(new Item(Item.PAGE, current_page - 1, window.before(1), false));
+                }
+                items.add(new Item(Item.PAGE, current_page, null, true));
+                // 显示的页数已满时，下一页以省略号代替
+                if (after && num_display_entries - (before ? 1 : 0) > 1) {
+                    items.add(new Item(Item.PAGE, current_page + 1, window.after(1), false));
+                } else if (after && !ellipse_text.equals("")) {
+                    items.add(new Item(Item.ELLIPSIS, -1, null, false));
+                }
+            }
+            if (!next_text.equals("") && (after || next_show_always)) {
+                items.add(after ? new Item(Item.NEXT, current_page + 1, window.after(1), false)
+                        : new Item(Item.NEXT, current_page, null, true));
+            }
+            return items;
+        }
+
+        private String href(Item item) {
+            return link_to.replace("__id__", String.valueOf(item.page_id))
+                    .replace("__page__", String.valueOf(item.page_id + 1))
+                    .replace("__size__", String.valueOf(items_per_page))
+                    .replace("__offset__", String.valueOf(item.page_id * items_per_page))
+                    .replace("__cursor__", item.cursor == null ? "" : item.cursor);
+        }
+
+        private String text(Item item) {
+            switch (item.type) {
+                case Item.PREV:
+                    return prev_text;
+                case Item.NEXT:
+                    return next_text;
+                case Item.ELLIPSIS:
+                    return ellipse_text;
+                default:
+                    return String.valueOf(item.page_id + 1);
+            }
+        }
+
+        // drawLinks() 的格式：<a href="..." class="prev">Prev</a>、<span class="current">2</span>、<span>...</span>
+        private String html(List<Item> items) {
+            StringBuilder panel = new StringBuilder();
+            for (Item item : items) {
+                String classes = item.type == Item.PREV ? "prev" : item.type == Item.NEXT ? "next" : "";
+                if (item.type == Item.ELLIPSIS) {
+                    panel.append("<span>").append(label(item)).append("</span>");
+                } else if (item.current) {
+                    panel.append("<span class=\"current").append(classes.isEmpty() ? "" : " " + classes).append("\">")
+                            .append(label(item)).append("</span>");
+                } else {
+                    panel.append("<a");
+                    if (!link_to.isEmpty()) {
+                        panel.append(" href=\"").append(escape(href(item))).append('"');
+                    }
+                    if (!classes.isEmpty()) {
+                        panel.append(" class=\"").append(classes).append('"');
+                    }
+                    panel.append('>').append(label(item)).append("</a>");
+                }
+            }
+            return panel.toString();
+        }
+
+        // 配置的文字中 &laquo; 等字符引用保持不变，其他字符与 escape 相同
+        private String label(Item item) {
+            return escape(text(item)).replace("&amp;laquo;", "&laquo;").replace("&amp;raquo;", "&raquo;");
+        }
+
+        private static String escape(String s) {
+            return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                    .replace("\"", "&quot;").replace("'", "&#39;");
+        }
+
+        // PaginationRenderer.BOOTSTRAP 的格式
+        private String bootstrap(List<Item> items) {
+            StringBuilder panel = new StringBuilder("<ul class=\"pagination\">");
+            for (Item item : items) {
+                String text = label(item);
+                if (item.type == Item.ELLIPSIS || item.current && item.type != Item.PAGE) {
+                    panel.append("<li class=\"page-item disabled\"><span class=\"page-link\">").append(text).append("</span></li>");
+                } else if (item.current) {
+                    panel.append("<li class=\"page-item active\" aria-current=\"page\"><span class=\"page-link\">")
+                            .append(text).append("</span></li>");
+                } else {
+                    panel.append("<li class=\"page-item\"><a class=\"page-link\" href=\"").append(escape(href(item)))
+                            .append("\">").append(text).append("</a></li>");
+                }
+            }
+            return panel.append("</ul>").toString();
+        }
+
+        // JsonPanelWriter 的格式
+        private String json(List<Item> items) {
+            StringBuilder json = new StringBuilder("[");
+            for (Item item : items) {
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                String[] types = {"prev", "page", "ellipsis", "next"};
+                json.append("{\"type\":\"").append(types[item.type]).append('"');
+                // 总数为0时上一页、下一页没有目标页，按当前页输出
+                boolean current = item.current || (item.type != Item.ELLIPSIS && item.page_id < 0);
+                if (item.type != Item.ELLIPSIS) {
+                    json.append(",\"page\":").append(Math.max(item.page_id, 0) + 1);
+                }
+                if (item.type != Item.PAGE) {
+                    json.append(",\"text\":\"").append(jsonEscape(text(item))).append('"');
+                }
+                if (item.type != Item.ELLIPSIS) {
+                    if (current) {
+                        json.append(",\"current\":true");
+                    } else {
+                        json.append(",\"href\":\"").append(jsonEscape(href(item))).append('"');
+                    }
+                }
+                json.append('}');
+            }
+            return json.append(']').toString();
+        }
+
+        // Pagination.model 的各项，总数为0时上一页、下一页按当前页
+        private List<PageItem> modelItems(List<Item> items) {
+            List<PageItem> model = new ArrayList<>();
+            PageItem.Type[] types = PageItem.Type.values();
+            for (Item item : items) {
+                if (item.type == Item.ELLIPSIS) {
+                    model.add(new PageItem(types[item.type], -1, ellipse_text, null, false));
+                } else if (item.page_id < 0) {
+                    model.add(new PageItem(types[item.type], 0, text(item), null, true));
+                } else {
+                    model.add(new PageItem(types[item.type], item.page_id, text(item), item.current ? null : href(item), item.current));
+                }
+            }
+            return model;
+        }
+
+        // PaginationRenderer.TEXT 的格式：当前的上一页、下一页不输出
+        private String text(List<Item> items) {
+            StringBuilder panel = new StringBuilder();
+            for (Item item : items) {
+                if (item.current && item.type != Item.PAGE) {
+                    continue;
+                }
+                if (panel.length() > 0) {
+                    panel.append(' ');
+                }
+                panel.append(item.current ? "[" + text(item) + "]" : text(item));
+            }
+            return panel.toString();
+        }
+
+        // CUSTOM 的格式
+        private String custom(List<Item> items) {
+            List<String> parts = new ArrayList<>();
+            for (Item item : items) {
+                String href = escape(href(item));
+                switch (item.type) {
+                    case Item.PREV:
+                        parts.add(item.current ? "<i>" + label(item) + "</i>" : "<a rel=\"prev\" href=\"" + href + "\">" + label(item) + "</a>");
+                        break;
+                    case Item.NEXT:
+                        if (!item.current) {
+                            parts.add("<a rel=\"next\" href=\"" + href + "\">" + label(item) + "</a>");
+                        }
+                        break;
+                    case Item.ELLIPSIS:
+                        parts.add("<s>" + label(item) + "</s>");
+                        break;
+                    default:
+                        parts.add(item.current ? "<b data-id=\"" + item.page_id + "\">" + (item.page_id + 1) + "</b>"
+                                : "<a href=\"" + href + "\" data-id=\"" + item.page_id + "\">" + (item.page_id + 1) + "</a>");
+                        break;
+                }
+            }
+            return "<nav>" + String.join("|", parts) + "</nav>";
+        }
+
+        // 共 np 页、当前为 page 时的 <link> 提示：上一页、下一页以及下一页之后 prefetch_pages 页中存在的页
+        private String hints(int np, int page) {
+            if (np == 0 || link_to.isEmpty()) {
+                return "";
+            }
+            StringBuilder hints = new StringBuilder();
+            if (page > 0) {
+                hints.append("<link rel=\"prev\" href=\"").append(escape(href(new Item(Item.PAGE, page - 1, null, false)))).append("\"/>");
+            }
+            if (page < np - 1) {
+                hints.append("<link rel=\"next\" href=\"").append(escape(href(new Item(Item.PAGE, page + 1, null, false)))).append("\"/>");
+            }
+            for (long i = page + 2; i <= Math.min(page + 1L + prefetch_pages, np - 1); i++) {
+                hints.append("<link rel=\"prefetch\" href=\"").append(escape(href(new Item(Item.PAGE, i, null, false)))).append("\"/>");
+            }
+            return hints.toString();
+        }
+
+        // 上一页、下一页以及下一页之后 prefetch_pages 页中存在的页
+        private List<Long> neighbors(int np, int page) {
+            List<Long> pages = new ArrayList<>();
+            if (np == 0) {
+                return pages;
+            }
+            if (page > 0) {
+                pages.add(page - 1L);
+            }
+            for (long i = page + 1; i <= Math.min(page + 1L + prefetch_pages, np - 1); i++) {
+                pages.add(i);
+            }
+            return pages;
+        }
+
+        private static String jsonEscape(String s) {
+            return s.replace("\\", "\\\\").replace("\"", "\\\"");
+        }
+
+        @Override
+        public String toString() {
+            return "items_per_page=" + items_per_page + " num_display_entries=" + num_display_entries
+                    + " num_edge_entries=" + num_edge_entries + " link_to=" + link_to + " jump_base=" + jump_base
+                    + " maxentries=" + maxentries + " current_page=" + current_page
+                    + " max_pages=" + max_pages + " prefetch_pages=" + prefetch_pages;
+        }
+    }
+
+    /**
+     * 每个线程一个，线程内复用的对象（Pagination、StringBuilder、ByteBuffer、PanelBatch）只在本线程使用
+     */
+    private final class Worker implements Runnable {
+
+        private final Random random;
+        private final CountDownLatch start;
+        private final Pagination pagination = new Pagination();
+        private final StringBuilder reused = new StringBuilder(1024);
+        private final ByteBuffer bytes = ByteBuffer.allocate(64 * 1024);
+        private final ByteArrayOutputStream stream = new ByteArrayOutputStream(1024);
+        private final PanelBatch batch = new PanelBatch();
+
+        Worker(long seed, CountDownLatch start) {
+            this.random = new Random(seed);
+            this.start = start;
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+                long count = 0;
+                do {
+                    for (int i = 0; i < 256; i++) {
+                        check(cases[random.nextInt(cases.length)], random.nextInt(PATHS));
+                    }
+                    count += 256;
+                } while (System.nanoTime() < deadline);
+                renders.addAndGet(count);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                report("exception " + e, null, null);
+                e.printStackTrace();
+            }
+        }
+
+        private void check(Case c, int path) throws IOException {
+            String actual;
+            String expected = c.expected;
+            boolean suffix = false; // 只比较结尾
+            switch (path) {
+                case 0:
+                    actual = Pagination.render(c.config, c.current_page, c.maxentries);
+                    break;
+                case 1:
+                    actual = cache.render(c.config, c.current_page, c.maxentries);
+                    break;
+                case 2:
+                    reused.setLength(0);
+                    Pagination.render(c.config, c.current_page, c.maxentries, reused);
+                    actual = reused.toString();
+                    break;
+                case 3:
+                    bytes.clear();
+                    Pagination.render(c.config, c.current_page, c.maxentries, bytes);
+                    actual = new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8);
+                    break;
+                case 4:
+                    stream.reset();
+                    Pagination.render(c.config, c.current_page, c.maxentries, stream);
+                    actual = new String(stream.toByteArray(), StandardCharsets.UTF_8);
+                    break;
+                case 5:
+                    actual = c.pagination(pagination).drawLinks();
+                    break;
+                case 6:
+                    // 同一批次只能使用同一配置，两个面板都应与参考输出一致
+                    batch.render(c.config, new long[]{c.current_page, c.current_page}, new long[]{c.maxentries, c.maxentries});
+                    actual = batch.panel(0).equals(batch.panel(1)) ? batch.panel(1) : batch.panel(0) + "|" + batch.panel(1);
+                    break;
+                case 7:
+                    actual = model(Pagination.model(c.config, c.current_page, c.maxentries));
+                    expected = c.expected_model;
+                    break;
+                case 8:
+                    // 已知的记录恰好到当前页为止
+                    actual = Pagination.renderOpenEnded(c.config, c.current_page, (c.current_page + 1L) * c.items_per_page);
+                    expected = c.expected_open_next;
+                    suffix = true;
+                    break;
+                case 9:
+                    // 多取的一条说明后面还有
+                    actual = Pagination.renderLookahead(c.config, c.current_page, c.items_per_page + 1);
+                    expected = c.expected_open_next;
+                    suffix = true;
+                    break;
+                case 10:
+                    actual = Pagination.render(c.jump_config, c.current_page, c.maxentries);
+                    expected = c.expected_jump;
+                    break;
+                case 11:
+                    actual = Pagination.renderCursor(c.config, c.window);
+                    expected = c.expected_cursor;
+                    break;
+                case 12:
+                    actual = Pagination.renderJson(c.config, c.current_page, c.maxentries);
+                    expected = c.expected_json;
+                    break;
+                case 13:
+                    actual = Pagination.render(c.config, c.current_page, c.maxentries, PaginationRenderer.TEXT);
+                    expected = c.expected_text;
+                    break;
+                case 14:
+                    actual = Pagination.render(c.config, c.current_page, c.maxentries, CUSTOM);
+                    expected = c.expected_custom;
+                    break;
+                case 15:
+                    // 超出 max_pages 的页码先跳到最近的可访问页再渲染
+                    long page = Pagination.resolvePage(c.capped_config, c.current_page, c.maxentries);
+                    actual = page + ":" + Pagination.render(c.capped_config, page, c.maxentries);
+                    expected = c.expected_capped;
+                    break;
+                case 16:
+                    actual = Pagination.renderHints(c.capped_config, c.current_page, c.maxentries);
+                    expected = c.expected_hints;
+                    break;
+                case 17:
+                    actual = Arrays.toString(Pagination.neighbors(c.capped_config, c.current_page, c.maxentries));
+                    expected = c.expected_neighbors;
+                    break;
+                default:
+                    actual = Pagination.render(c.config, c.current_page, c.maxentries, PaginationRenderer.BOOTSTRAP);
+                    expected = c.expected_bootstrap;
+                    break;
+            }
+            if (suffix ? !actual.endsWith(expected) : !expected.equals(actual)) {
+                report("path " + path + " " + c, expected, actual);
+            }
+        }
+    }
+
+    // 逐项输出 PageItem 的所有字段，toString 不含页码
+    private static String model(List<PageItem> items) {
+        StringBuilder model = new StringBuilder();
+        for (PageItem item : items) {
+            model.append(item.getType()).append(':').append(item.getPage_id()).append(':').append(item.getText())
+                    .append(':').append(item.getHref()).append(':').append(item.isCurrent()).append(';');
+        }
+        return model.toString();
+    }
+
+    private void report(String what, String expected, String actual) {
+        if (failures.incrementAndGet() <= MAX_REPORTED) {
+            System.out.println("MISMATCH " + what + "\n  expected: " + expected + "\n  actual:   " + actual);
+        }
+    }
+
+    /**
+     * 多个线程同时未命中同一 key 时只加载一次；并发 increment 之后总数准确
+     */
+    private void checkCountCache() throws InterruptedException {
+        final CountCache<String> counts = new CountCache<>(16, 1, TimeUnit.MINUTES);
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final int increments = 10000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    counts.get("k", () -> {
+                        loads.incrementAndGet();
+                        sleep(50);
+                        return 1000;
+                    });
+                    for (int i = 0; i < increments; i++) {
+                        counts.increment("k");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Long total = counts.getIfPresent("k");
+        long expected = 1000L + (long) threads * increments;
+        if (loads.get() != 1 || total == null || total != expected) {
+            report("CountCache loads=" + loads.get(), String.valueOf(expected), String.valueOf(total));
+        }
+    }
+
+    /**
+     * 多个线程同时对同一 key 调用 getAsync 时只加载一次，所有 future 得到同一总数
+     */
+    private void checkCountCacheAsync() throws InterruptedException {
+        final CountCache<String> counts = new CountCache<>(16, 1, TimeUnit.MINUTES);
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1); // 所有线程都发起请求之前加载不结束
+        final List<CompletableFuture<Long>> results = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Thread worker = new Thread(() -> {
+                    try {
+                        start.await();
+                        results.add(counts.getAsync("k", () -> {
+                            loads.incrementAndGet();
+                            await(release);
+                            return 1000L;
+                        }, executor));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                worker.start();
+                workers.add(worker);
+            }
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            release.countDown();
+            for (CompletableFuture<Long> result : results) {
+                Long total = null;
+                try {
+                    total = result.get(1, TimeUnit.SECONDS);
+                } catch (ExecutionException | TimeoutException e) {
+                    // 下面报告
+                }
+                if (total == null || total != 1000) {
+                    report("CountCache getAsync", "1000", String.valueOf(total));
+                }
+            }
+            if (loads.get() != 1 || results.size() != threads) {
+                report("CountCache getAsync loads=" + loads.get() + " results=" + results.size(), "1", String.valueOf(loads.get()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 用可控的时钟检查 TTL；executor 拒绝任务后同一 key 仍可以重新加载
+     */
+    private void checkCountCacheExpiry() {
+        final AtomicLong now = new AtomicLong();
+        final AtomicInteger loads = new AtomicInteger();
+        CountCache<String> counts = new CountCache<>(16, 10, TimeUnit.SECONDS, now::get);
+        counts.get("k", () -> 100 + loads.incrementAndGet());
+        now.set(TimeUnit.SECONDS.toNanos(10) - 1);
+        long beforeExpiry = counts.get("k", () -> 100 + loads.incrementAndGet());
+        now.set(TimeUnit.SECONDS.toNanos(10));
+        Long expired = counts.getIfPresent("k");
+        long reloaded = counts.get("k", () -> 100 + loads.incrementAndGet());
+        if (beforeExpiry != 101 || expired != null || reloaded != 102 || loads.get() != 2) {
+            report("CountCache TTL before=" + beforeExpiry + " expired=" + expired + " loads=" + loads.get(),
+                    "102", String.valueOf(reloaded));
+        }
+
+        CompletableFuture<Long> rejected = counts.getAsync("r", () -> 1L, task -> {
+            throw new RejectedExecutionException();
+        });
+        Long retried = null;
+        try {
+            retried = counts.getAsync("r", () -> 2L, Runnable::run).get(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // 下面报告
+        }
+        if (!rejected.isCompletedExceptionally() || retried == null || retried != 2) {
+            report("CountCache rejected executor", "2", String.valueOf(retried));
+        }
+    }
+
+    /**
+     * COUNT 超时时，取满一页的结果面板仍然链接到下一页
+     */
+    private void checkAsyncTimeout() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Case c = cases[0];
+            for (int i = 1; c.next_text.equals("") && i < cases.length; i++) {
+                c = cases[i];
+            }
+            final long total = c.maxentries;
+            AsyncPagination async = new AsyncPagination(c.config, executor, 20, TimeUnit.MILLISECONDS);
+            List<Integer> rows = new ArrayList<>(Collections.nCopies(c.items_per_page, 0));
+            List<CompletableFuture<PageResult<Integer>>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(async.fetch(c.current_page, () -> {
+                    sleep(500);
+                    return total;
+                }, () -> rows));
+            }
+            for (CompletableFuture<PageResult<Integer>> result : results) {
+                PageResult<Integer> page = result.join();
+                if (page.isTotalKnown() || !page.getPanel().endsWith(c.expected_open_next)) {
+                    report("AsyncPagination timeout " + c + " total=" + page.getTotal_entries(),
+                            "..." + c.expected_open_next, page.getPanel());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 运行所有检查，返回不一致的个数
+     */
+    public int run(long seed) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(new Worker(seed + t + 1, start), "stress-" + t);
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        checkCountCache();
+        checkCountCacheAsync();
+        checkCountCacheExpiry();
+        checkAsyncTimeout();
+
+        System.out.println(String.format("%d threads, %d cases, %d renders, %d failures, %s",
+                threads, cases.length, renders.get(), failures.get(), cache));
+        return failures.get();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 5000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        System.out.println("seed=" + seed);
+        int failures = new PaginationStress(threads, millis, seed, 2000).run(seed);
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.qianmi.app.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 批量渲染多个分页面板
+ * 同一配置下的多个分页组件（如报表页中的多个列表）渲染到同一个可复用的缓冲区，
+ * 按下标取出各自的区间，整个批次共用一个 HtmlPanelWriter
+ *
+ * 非线程安全，可在同一线程内反复使用（如放在 ThreadLocal 中）
+ *
+ * @author mysoko
+ */
+public final class PanelBatch {
+
+    private final StringBuilder buffer;
+    private int[] offsets = new int[17]; // 第 i 个面板为 [offsets[i], offsets[i + 1])
+    private int size;
+
+    public PanelBatch() {
+        this(1024);
+    }
+
+    public PanelBatch(int initialCapacity) {
+        this.buffer = new StringBuilder(initialCapacity);
+    }
+
+    /**
+     * 渲染 currentPages.length 个面板，覆盖上一次的结果
+     */
+    public PanelBatch render(PaginationConfig config, long[] currentPages, long[] totalEntries) {
+        if (currentPages.length != totalEntries.length) {
+            throw new IllegalArgumentException("currentPages and totalEntries must have the same length");
+        }
+        int count = currentPages.length;
+        if (offsets.length < count + 1) {
+            offsets = Arrays.copyOf(offsets, Math.max(count + 1, offsets.length * 2));
+        }
+        buffer.setLength(0);
+        size = 0;
+
+        HtmlPanelWriter writer = new HtmlPanelWriter(config, buffer);
+        Pagination.writeInMemory(() -> {
+            for (int i = 0; i < count; i++) {
+                offsets[i] = buffer.length();
+                Pagination.visit(config, currentPages[i], totalEntries[i], writer);
+            }
+        });
+        offsets[count] = buffer.length();
+        size = count;
+        if (config.getObserver() != null) {
+            config.getObserver().produced(config, buffer.length());
+        }
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int start(int i) {
+        checkIndex(i);
+        return offsets[i];
+    }
+
+    public int end(int i) {
+        checkIndex(i);
+        return offsets[i + 1];
+    }
+
+    /**
+     * 所有面板依次拼接的内容，第 i 个面板位于 [start(i), end(i))
+     */
+    public CharSequence buffer() {
+        return buffer;
+    }
+
+    public String panel(int i) {
+        return buffer.substring(start(i), end(i));
+    }
+
+    /**
+     * 写出第 i 个面板，不产生中间字符串
+     */
+    public void writeTo(int i, Appendable out) throws IOException {
+        out.append(buffer, start(i), end(i));
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        }
+    }
+
+    public static void main(String[] args) {
+        PaginationConfig config = PaginationConfig.builder().setNum_display_entries(5).setNum_edge_entries(1).build();
+        PanelBatch batch = new PanelBatch().render(config, new long[]{0, 3, 9}, new long[]{100, 1000, 95});
+        for (int i = 0; i < batch.size(); i++) {
+            System.out.println(batch.panel(i));
+        }
+    }
+
+}
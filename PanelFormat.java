@@ -0,0 +1,242 @@
+package com.qianmi.app.util;
+
+import java.io.IOException;
+
+/**
+ * 自定义格式的分页面板，每一项由一个模板描述，如：
+ * <pre>
+ * PaginationRenderer renderer = PanelFormat.builder()
+ *         .setBegin("&lt;nav&gt;").setEnd("&lt;/nav&gt;")
+ *         .setPage("&lt;a href=\"{href}\"&gt;{page}&lt;/a&gt;")
+ *         .setCurrent("&lt;b&gt;{page}&lt;/b&gt;")
+ *         .build();
+ * String html = Pagination.render(config, currentPage, totalEntries, renderer);
+ * </pre>
+ *
+ * 模板中的占位符：
+ * {href}  链接，由 link_to 生成
+ * {page}  页码，从1开始
+ * {id}    页码，从0开始
+ * {text}  上一页、下一页、省略号为配置中对应的文字，页码项为页码
+ * 其他内容原样输出。html 为 true（默认）时 {href}、{text} 转义后输出
+ *
+ * 模板在 build() 时解析一次，渲染时只依次写出字面量和占位符的值
+ * 某一项的模板为空串时不输出该项，也不输出它前面的分隔符
+ *
+ * 不可变，可作为单例在多线程间共享
+ *
+ * @author mysoko
+ */
+public final class PanelFormat implements PaginationRenderer {
+
+    // 占位符按 slot 值排列
+    private static final String[] PLACEHOLDERS = {"{href}", "{page}", "{id}", "{text}"};
+    private static final int SLOT_HREF = 0;
+    private static final int SLOT_PAGE = 1;
+    private static final int SLOT_ID = 2;
+    private static final int SLOT_TEXT = 3;
+
+    private final boolean html;
+    private final String begin;
+    private final String end;
+    private final String separator;
+    private final CompiledTemplate page;
+    private final CompiledTemplate current;
+    private final CompiledTemplate prev;
+    private final CompiledTemplate current_prev;
+    private final CompiledTemplate next;
+    private final CompiledTemplate current_next;
+    private final CompiledTemplate ellipsis;
+
+    private PanelFormat(Builder builder) {
+        this.html = builder.html;
+        this.begin = builder.begin;
+        this.end = builder.end;
+        this.separator = builder.separator;
+        this.page = compile(builder.page);
+        this.current = compile(builder.current);
+        this.prev = compile(builder.prev);
+        this.current_prev = compile(builder.current_prev);
+        this.next = compile(builder.next);
+        this.current_next = compile(builder.current_next);
+        this.ellipsis = compile(builder.ellipsis);
+    }
+
+    private static CompiledTemplate compile(String item) {
+        return CompiledTemplate.compile(item, PLACEHOLDERS);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public PanelVisitor open(PaginationConfig config, Appendable out) {
+        return new Writer(config, out);
+    }
+
+    private final class Writer implements PanelVisitor {
+
+        private final PaginationConfig config;
+        private final Appendable out;
+        private boolean first;
+
+        Writer(PaginationConfig config, Appendable out) {
+            this.config = config;
+            this.out = out;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            out.append(begin);
+            first = true;
+        }
+
+        @Override
+        public void prev(long page_id, CharSequence cursor, boolean current) throws IOException {
+            write(current ? current_prev : prev, page_id, cursor,
+                    html ? config.getPrev_html() : config.getPrev_text());
+        }
+
+        @Override
+        public void page(long page_id, CharSequence cursor, boolean current) throws IOException {
+            write(current ? PanelFormat.this.current : page, page_id, cursor, null);
+        }
+
+        @Override
+        public void ellipsis() throws IOException {
+            write(ellipsis, -1, null, html ? config.getEllipse_html() : config.getEllipse_text());
+        }
+
+        @Override
+        public void next(long page_id, CharSequence cursor, boolean current) throws IOException {
+            write(current ? current_next : next, page_id, cursor,
+                    html ? config.getNext_html() : config.getNext_text());
+        }
+
+        @Override
+        public void end() throws IOException {
+            out.append(end);
+        }
+
+        // text 为空时 {text} 输出页码
+        private void write(CompiledTemplate item, long page_id, CharSequence cursor, String text) throws IOException {
+            if (item.isEmpty()) {
+                return;
+            }
+            if (!first) {
+                out.append(separator);
+            }
+            first = false;
+            for (int i = 0; i < item.slots.length; i++) {
+                out.append(item.literals[i]);
+                switch (item.slots[i]) {
+                    case SLOT_HREF:
+                        if (html) {
+                            config.getLink_template().writeHtml(out, page_id, config.getItems_per_page(), cursor);
+                        } else {
+                            config.getLink_template().write(out, page_id, config.getItems_per_page(), cursor);
+                        }
+                        break;
+                    case SLOT_PAGE:
+                        Pagination.appendNumber(page_id + 1, out);
+                        break;
+                    case SLOT_ID:
+                        Pagination.appendNumber(page_id, out);
+                        break;
+                    case SLOT_TEXT:
+                        if (text != null) {
+                            out.append(text);
+                        } else {
+                            Pagination.appendNumber(page_id + 1, out);
+                        }
+                        break;
+                    default:
+                        throw new IllegalStateException();
+                }
+            }
+            out.append(item.literals[item.slots.length]);
+        }
+    }
+
+    public static class Builder {
+
+        private boolean html = true;
+        private String begin = "";
+        private String end = "";
+        private String separator = "";
+        private String page = "{page}";
+        private String current = "{page}";
+        private String prev = "";
+        private String current_prev = "";
+        private String next = "";
+        private String current_next = "";
+        private String ellipsis = "{text}";
+
+        private Builder() {
+        }
+
+        public Builder setHtml(boolean html) {
+            this.html = html;
+            return this;
+        }
+
+        public Builder setBegin(String begin) {
+            this.begin = begin;
+            return this;
+        }
+
+        public Builder setEnd(String end) {
+            this.end = end;
+            return this;
+        }
+
+        public Builder setSeparator(String separator) {
+            this.separator = separator;
+            return this;
+        }
+
+        public Builder setPage(String page) {
+            this.page = page;
+            return this;
+        }
+
+        public Builder setCurrent(String current) {
+            this.current = current;
+            return this;
+        }
+
+        public Builder setPrev(String prev) {
+            this.prev = prev;
+            return this;
+        }
+
+        public Builder setCurrent_prev(String current_prev) {
+            this.current_prev = current_prev;
+            return this;
+        }
+
+        public Builder setNext(String next) {
+            this.next = next;
+            return this;
+        }
+
+        public Builder setCurrent_next(String current_next) {
+            this.current_next = current_next;
+            return this;
+        }
+
+        public Builder setEllipsis(String ellipsis) {
+            this.ellipsis = ellipsis;
+            return this;
+        }
+
+        public PanelFormat build() {
+            if (begin == null || end == null || separator == null) {
+                throw new NullPointerException();
+            }
+            return new PanelFormat(this);
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.qianmi.app.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 编译后的分页面板
+ * 每个配置只构建一次，把不变的标签、属性、文字和链接字面量合并成整段片段（字符和 UTF-8 字节各一份），
+ * 渲染时只需依次写出片段、页码和链接中的数字
+ *
+ * 输出与 HTMLTag.toString() 一致：
+ * <span class="current xx">text</span> 或 <a href="..." class="xx">text</a>，
+ * 预取提示为 <link rel="xx" href="..."/>
+ *
+ * @author mysoko
+ */
+final class PanelTemplate {
+
+    private static final String SPAN = HTMLTag.Tag.SPAN.toString();
+    private static final String A = HTMLTag.Tag.A.toString();
+    private static final String CLASS = HTMLTag.Attribute.CLASS.toString();
+    private static final String HREF = HTMLTag.Attribute.HREF.toString();
+    private static final String LINK = HTMLTag.Tag.LINK.toString();
+    private static final String REL = HTMLTag.Attribute.REL.toString();
+
+    // 页码链接：<a href="...">，之后是页码，再之后是 </a>
+    final String[] page_link;
+    final String page_link_end;
+    // 当前页：<span class="current">，之后是页码，再之后是 </span>
+    final String current_start;
+    final String current_end;
+    // 上一页、下一页链接：<a href="..." class="prev">Prev</a>
+    final String[] prev_link;
+    final String[] next_link;
+    // 上一页、下一页为当前页时整段不变：<span class="current prev">Prev</span>
+    final String current_prev;
+    final String current_next;
+    // <span>...</span>
+    final String ellipsis;
+    // 预取提示：<link rel="next" href="..."/>
+    final String[] prev_hint;
+    final String[] next_hint;
+    final String[] prefetch_hint;
+
+    final byte[][] page_link_bytes;
+    final byte[] page_link_end_bytes;
+    final byte[] current_start_bytes;
+    final byte[] current_end_bytes;
+    final byte[][] prev_link_bytes;
+    final byte[][] next_link_bytes;
+    final byte[] current_prev_bytes;
+    final byte[] current_next_bytes;
+    final byte[] ellipsis_bytes;
+
+    PanelTemplate(LinkTemplate link, String prev_html, String next_html, String ellipse_html) {
+        // link_to 为空串时与 HTMLTag.addAttribute 一样不输出 href：<a class="prev">Prev</a>、<a>1</a>
+        boolean href = !link.toString().isEmpty();
+        String link_start = href ? "<" + A + " " + HREF + "=\"" : "<" + A;
+        String link_end = href ? "\"" : "";
+        page_link = link.htmlFragments(link_start, link_end + ">");
+        page_link_end = "</" + A + ">";
+        current_start = "<" + SPAN + " " + CLASS + "=\"current\">";
+        current_end = "</" + SPAN + ">";
+        prev_link = link.htmlFragments(link_start, link_end + " " + CLASS + "=\"prev\">" + prev_html + page_link_end);
+        next_link = link.htmlFragments(link_start, link_end + " " + CLASS + "=\"next\">" + next_html + page_link_end);
+        current_prev = "<" + SPAN + " " + CLASS + "=\"current prev\">" + prev_html + current_end;
+        current_next = "<" + SPAN + " " + CLASS + "=\"current next\">" + next_html + current_end;
+        ellipsis = "<" + SPAN + ">" + ellipse_html + current_end;
+        prev_hint = link.htmlFragments(hintStart("prev"), "\"/>");
+        next_hint = link.htmlFragments(hintStart("next"), "\"/>");
+        prefetch_hint = link.htmlFragments(hintStart("prefetch"), "\"/>");
+
+        page_link_bytes = LinkTemplate.utf8(page_link);
+        page_link_end_bytes = utf8(page_link_end);
+        current_start_bytes = utf8(current_start);
+        current_end_bytes = utf8(current_end);
+        prev_link_bytes = LinkTemplate.utf8(prev_link);
+        next_link_bytes = LinkTemplate.utf8(next_link);
+        current_prev_bytes = utf8(current_prev);
+        current_next_bytes = utf8(current_next);
+        ellipsis_bytes = utf8(ellipsis);
+    }
+
+    private static String hintStart(String rel) {
+        return "<" + LINK + " " + REL + "=\"" + rel + "\" " + HREF + "=\"";
+    }
+
+    private static byte[] utf8(String fragment) {
+        return fragment.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.qianmi.app.util;
+
+import java.io.IOException;
+
+/**
+ * 分页面板的事件
+ * Pagination 计算区间和首尾链接时按顺序回调，一次遍历即可输出 HTML、JSON 或对象列表
+ *
+ * page_id 从0开始；current 为 true 时表示该项指向当前页（HTML 中输出为 span）；
+ * cursor 只在游标分页时有值
+ *
+ * @author mysoko
+ */
+public interface PanelVisitor {
+
+    void begin() throws IOException;
+
+    // 上一页
+    void prev(long page_id, CharSequence cursor, boolean current) throws IOException;
+
+    // 页码
+    void page(long page_id, CharSequence cursor, boolean current) throws IOException;
+
+    // 省略号
+    void ellipsis() throws IOException;
+
+    // 下一页
+    void next(long page_id, CharSequence cursor, boolean current) throws IOException;
+
+    void end() throws IOException;
+
+}
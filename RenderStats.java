@@ -0,0 +1,147 @@
+package com.qianmi.app.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 内置的渲染统计：次数、耗时和页深的 2 的幂分桶直方图、输出长度、缓存命中率
+ * 使用 LongAdder，多线程并发记录时没有锁竞争
+ *
+ * 第 i 个桶统计 [2^(i-1), 2^i) 的值，第 0 个桶统计 0
+ *
+ * @author mysoko
+ */
+public class RenderStats implements PaginationObserver {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder renders = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder produced = new LongAdder();
+    private final LongAdder cache_hits = new LongAdder();
+    private final LongAdder cache_misses = new LongAdder();
+    private final LongAdder[] latency = buckets();   // 耗时，纳秒
+    private final LongAdder[] depth = buckets();     // 当前页数，从0开始
+
+    private static LongAdder[] buckets() {
+        LongAdder[] buckets = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+        return buckets;
+    }
+
+    // 值所在的桶
+    static int bucket(long value) {
+        return value <= 0 ? 0 : BUCKETS - Long.numberOfLeadingZeros(value);
+    }
+
+    @Override
+    public void rendered(PaginationConfig config, long current_page, long np, long nanos) {
+        renders.increment();
+        this.nanos.add(nanos);
+        latency[bucket(nanos)].increment();
+        depth[bucket(current_page)].increment();
+    }
+
+    @Override
+    public void produced(PaginationConfig config, long length) {
+        produced.add(length);
+    }
+
+    @Override
+    public void cacheHit(PaginationConfig config) {
+        cache_hits.increment();
+    }
+
+    @Override
+    public void cacheMiss(PaginationConfig config) {
+        cache_misses.increment();
+    }
+
+    public long getRenders() {
+        return renders.sum();
+    }
+
+    public long getNanos() {
+        return nanos.sum();
+    }
+
+    public long getProduced() {
+        return produced.sum();
+    }
+
+    public long getCacheHits() {
+        return cache_hits.sum();
+    }
+
+    public long getCacheMisses() {
+        return cache_misses.sum();
+    }
+
+    public long[] getLatencyHistogram() {
+        return snapshot(latency);
+    }
+
+    public long[] getDepthHistogram() {
+        return snapshot(depth);
+    }
+
+    /**
+     * 耗时的近似分位数，返回所在桶的上界（纳秒）
+     */
+    public long latencyPercentile(double q) {
+        return percentile(getLatencyHistogram(), q);
+    }
+
+    /**
+     * 页深的近似分位数，返回所在桶的上界
+     */
+    public long depthPercentile(double q) {
+        return percentile(getDepthHistogram(), q);
+    }
+
+    private static long[] snapshot(LongAdder[] buckets) {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    private static long percentile(long[] counts, double q) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return i == 0 ? 0 : (i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1);
+            }
+        }
+        return 0;
+    }
+
+    public void reset() {
+        renders.reset();
+        nanos.reset();
+        produced.reset();
+        cache_hits.reset();
+        cache_misses.reset();
+        for (int i = 0; i < BUCKETS; i++) {
+            latency[i].reset();
+            depth[i].reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RenderStats{renders=" + getRenders() + ", nanos=" + getNanos() + ", produced=" + getProduced()
+                + ", p50=" + latencyPercentile(0.5) + "ns, p99=" + latencyPercentile(0.99) + "ns"
+                + ", depthP99=" + depthPercentile(0.99)
+                + ", cacheHits=" + getCacheHits() + ", cacheMisses=" + getCacheMisses() + "}";
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.qianmi.app.util;
+
+import java.io.IOException;
+
+/**
+ * 以 UTF-8 字节输出与 HtmlPanelWriter 相同的 HTML
+ * 片段由 PanelTemplate 预先编译和编码，只有页码、链接中的数字和游标按请求编码
+ *
+ * @author mysoko
+ */
+final class Utf8PanelWriter implements PanelVisitor {
+
+    private final PaginationConfig config;
+    private final PanelTemplate template;
+    private final ByteSink out;
+
+    Utf8PanelWriter(PaginationConfig config, ByteSink out) {
+        this.config = config;
+        this.template = config.getPanel_template();
+        this.out = out;
+    }
+
+    @Override
+    public void begin() {
+    }
+
+    @Override
+    public void prev(long page_id, CharSequence cursor, boolean current) throws IOException {
+        if (current) {
+            out.write(template.current_prev_bytes);
+        } else {
+            link(template.prev_link_bytes, page_id, cursor);
+        }
+    }
+
+    @Override
+    public void page(long page_id, CharSequence cursor, boolean current) throws IOException {
+        if (current) {
+            out.write(template.current_start_bytes);
+            out.writeNumber(page_id + 1);
+            out.write(template.current_end_bytes);
+        } else {
+            link(template.page_link_bytes, page_id, cursor);
+            out.writeNumber(page_id + 1);
+            out.write(template.page_link_end_bytes);
+        }
+    }
+
+    @Override
+    public void ellipsis() throws IOException {
+        out.write(template.ellipsis_bytes);
+    }
+
+    @Override
+    public void next(long page_id, CharSequence cursor, boolean current) throws IOException {
+        if (current) {
+            out.write(template.current_next_bytes);
+        } else {
+            link(template.next_link_bytes, page_id, cursor);
+        }
+    }
+
+    @Override
+    public void end() {
+    }
+
+    private void link(byte[][] fragments, long page_id, CharSequence cursor) throws IOException {
+        config.getLink_template().writeHtml(out, fragments, page_id, config.getItems_per_page(), cursor);
+    }
+
+}